@@ -0,0 +1,63 @@
+package convertor;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class Base58Benchmark {
+
+    @Param({"44", "256", "1024"})
+    public int payloadSize;
+
+    private byte[] data;
+    private String encoded;
+
+    @State(Scope.Thread)
+    public static class Buffers {
+        char[] chars;
+        byte[] bytes;
+
+        @Setup
+        public void setup(Base58Benchmark benchmark) {
+            chars = new char[Base58.maxEncodedLength(benchmark.payloadSize)];
+            bytes = new byte[benchmark.payloadSize];
+        }
+    }
+
+    @Setup
+    public void setup() {
+        data = Payloads.bytes(payloadSize);
+        encoded = Base58.encode(data);
+    }
+
+    @Benchmark
+    public String encode() {
+        return Base58.encode(data);
+    }
+
+    @Benchmark
+    public byte[] decode() {
+        return Base58.decode(encoded);
+    }
+
+    @Benchmark
+    public int encodeIntoBuffer(Buffers buffers) {
+        return Base58.encode(data, 0, data.length, buffers.chars, 0);
+    }
+
+    @Benchmark
+    public String referenceEncode() {
+        return Base58.Reference.encode(data);
+    }
+
+    @Benchmark
+    public byte[] referenceDecode() {
+        return Base58.Reference.decode(encoded);
+    }
+}
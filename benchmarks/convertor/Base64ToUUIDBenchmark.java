@@ -0,0 +1,79 @@
+package convertor;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class Base64ToUUIDBenchmark {
+
+    // UUIDs per bulk call
+    private static final int BULK = 1024;
+
+    private UUID uuid;
+    private String base64;
+    private String base64Url;
+    private long[] uuids;
+    private char[] encoded;
+
+    @State(Scope.Thread)
+    public static class Buffers {
+        char[] chars = new char[BULK * Base64ToUUID.URL_LENGTH];
+        long[] longs = new long[BULK * 2];
+    }
+
+    @Setup
+    public void setup() {
+        uuid = new UUID(0x0123456789ABCDEFL, 0xFEDCBA9876543210L);
+        base64 = Base64ToUUID.uuidToBase64(uuid);
+        base64Url = Base64ToUUID.uuidToBase64Url(uuid);
+        uuids = new long[BULK * 2];
+        Random random = new Random(42);
+        for (int i = 0; i < uuids.length; i++) {
+            uuids[i] = random.nextLong();
+        }
+        encoded = new char[BULK * Base64ToUUID.URL_LENGTH];
+        Base64ToUUID.encodeUrl(uuids, 0, BULK, encoded, 0);
+    }
+
+    @Benchmark
+    public String uuidToBase64() {
+        return Base64ToUUID.uuidToBase64(uuid);
+    }
+
+    @Benchmark
+    public UUID base64ToUUID() {
+        return Base64ToUUID.base64ToUUID(base64);
+    }
+
+    @Benchmark
+    public String uuidToBase64Url() {
+        return Base64ToUUID.uuidToBase64Url(uuid);
+    }
+
+    @Benchmark
+    public UUID base64UrlToUUID() {
+        return Base64ToUUID.base64UrlToUUID(base64Url);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BULK)
+    public char[] bulkEncodeUrl(Buffers buffers) {
+        Base64ToUUID.encodeUrl(uuids, 0, BULK, buffers.chars, 0);
+        return buffers.chars;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BULK)
+    public long[] bulkDecodeUrl(Buffers buffers) {
+        Base64ToUUID.decodeUrl(encoded, 0, BULK, buffers.longs, 0);
+        return buffers.longs;
+    }
+}
@@ -0,0 +1,45 @@
+package convertor;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Arrays;
+
+/**
+ * Runs the selected benchmarks once per thread count with the GC profiler attached,
+ * so every result row also reports allocations per op ({@code gc.alloc.rate.norm}).
+ * <p>
+ * Thread counts come from {@code -Dbench.threads=1,2,4} (default: 1, 2, 4 and all cores);
+ * all other arguments are passed through as regular JMH options.
+ */
+public class BenchmarkMain {
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions cli = new CommandLineOptions(args);
+        for (int threads : threadCounts()) {
+            ChainedOptionsBuilder options = new OptionsBuilder()
+                    .parent(cli)
+                    .threads(threads)
+                    .addProfiler(GCProfiler.class);
+            System.out.println("# ---- " + threads + " thread(s) ----");
+            new Runner(options.build()).run();
+        }
+    }
+
+    private static int[] threadCounts() {
+        String configured = System.getProperty("bench.threads");
+        if (configured != null && !configured.isBlank()) {
+            return Arrays.stream(configured.split(","))
+                    .mapToInt(s -> Integer.parseInt(s.trim()))
+                    .toArray();
+        }
+        int cores = Runtime.getRuntime().availableProcessors();
+        return Arrays.stream(new int[]{1, 2, 4, cores})
+                .filter(t -> t <= Math.max(cores, 1))
+                .distinct()
+                .toArray();
+    }
+}
@@ -0,0 +1,78 @@
+package convertor;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FileStringReaderBenchmark {
+
+    // Number of 64-char lines in the test file
+    @Param({"1000", "100000"})
+    public int lines;
+
+    private Path file;
+    private String path;
+
+    @Setup
+    public void setup() throws IOException {
+        file = Files.createTempFile("convertor-bench", ".txt");
+        String line = Payloads.text(64) + "\n";
+        Files.writeString(file, line.repeat(lines), StandardCharsets.UTF_8);
+        path = file.toString();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public String readUsingFiles() throws IOException {
+        return FileStringReader.readUsingFiles(path);
+    }
+
+    @Benchmark
+    public String readUsingBufferedReader() throws IOException {
+        return FileStringReader.readUsingBufferedReader(path);
+    }
+
+    @Benchmark
+    public String readUsingStream() throws IOException {
+        return FileStringReader.readUsingStream(path);
+    }
+
+    @Benchmark
+    public String readUsingInputStream() throws IOException {
+        return FileStringReader.readUsingInputStream(path);
+    }
+
+    @Benchmark
+    public String readSmallFile() throws IOException {
+        return FileStringReader.readSmallFile(path);
+    }
+
+    @Benchmark
+    public List<String> readAllLines() throws IOException {
+        return FileStringReader.readAllLines(path);
+    }
+
+    @Benchmark
+    public long mapLines() throws Exception {
+        try (MappedLineReader reader = FileStringReader.mapLines(path)) {
+            long[] bytes = new long[1];
+            reader.forEachLine(line -> bytes[0] += line.length());
+            return bytes[0];
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package convertor;
+
+import org.openjdk.jmh.annotations.*;
+
+import javax.crypto.SecretKey;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ImprovedAESUtilsBenchmark {
+
+    @Param({"16", "256", "4096"})
+    public int payloadSize;
+
+    private String plain;
+    private String encrypted;
+    private ImprovedAESUtils.PreparedKey preparedKey;
+
+    @Setup
+    public void setup() throws Exception {
+        plain = Payloads.text(payloadSize);
+        preparedKey = ImprovedAESUtils.prepare("benchmark_password");
+        encrypted = preparedKey.encrypt(plain);
+    }
+
+    @Benchmark
+    public String encryptToUUID() throws Exception {
+        return ImprovedAESUtils.encryptToUUID(plain, "benchmark_password");
+    }
+
+    @Benchmark
+    public String decryptFromUUID() throws Exception {
+        return ImprovedAESUtils.decryptFromUUID(encrypted, "benchmark_password");
+    }
+
+    @Benchmark
+    public String preparedEncrypt() throws Exception {
+        return preparedKey.encrypt(plain);
+    }
+
+    @Benchmark
+    public String preparedDecrypt() throws Exception {
+        return preparedKey.decrypt(encrypted);
+    }
+
+    // What every message used to pay before the key was cached
+    @Benchmark
+    public SecretKey deriveKey() throws Exception {
+        return ImprovedAESUtils.generateAESKeyFromPassword("benchmark_password");
+    }
+}
@@ -0,0 +1,54 @@
+package convertor;
+
+import java.util.Random;
+
+/**
+ * Deterministic benchmark inputs
+ */
+final class Payloads {
+    private static final String WORD_CHARS = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
+
+    private Payloads() {
+    }
+
+    /**
+     * ASCII text of {@code length} chars made of short words separated by runs of spaces
+     */
+    static String text(int length) {
+        Random random = new Random(length);
+        StringBuilder sb = new StringBuilder(length);
+        while (sb.length() < length) {
+            int word = 1 + random.nextInt(8);
+            for (int i = 0; i < word && sb.length() < length; i++) {
+                sb.append(WORD_CHARS.charAt(random.nextInt(WORD_CHARS.length())));
+            }
+            int spaces = 1 + random.nextInt(2);
+            for (int i = 0; i < spaces && sb.length() < length - 1; i++) {
+                sb.append(' ');
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Repetitive JSON of about {@code length} chars: an array of records sharing keys and most values
+     */
+    static String json(int length) {
+        Random random = new Random(length);
+        StringBuilder sb = new StringBuilder(length + 64).append('[');
+        for (int id = 0; sb.length() < length; id++) {
+            sb.append("{\"id\":").append(id)
+                    .append(",\"status\":\"").append(random.nextBoolean() ? "active" : "pending")
+                    .append("\",\"score\":").append(random.nextInt(100))
+                    .append(",\"tags\":[\"alpha\",\"beta\"]},");
+        }
+        sb.setCharAt(sb.length() - 1, ']');
+        return sb.toString();
+    }
+
+    static byte[] bytes(int length) {
+        byte[] bytes = new byte[length];
+        new Random(length).nextBytes(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,45 @@
+package convertor;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RandomSourceBenchmark {
+
+    // 12 = GCM IV, 16 = salt
+    @Param({"12", "16"})
+    public int length;
+
+    private final SecureRandom secureRandom = new SecureRandom();
+    private byte[] target;
+
+    @Setup
+    public void setup() {
+        target = new byte[length];
+    }
+
+    @Benchmark
+    public byte[] secureRandomPerThread() {
+        secureRandom.nextBytes(target);
+        return target;
+    }
+
+    @Benchmark
+    public byte[] bufferedSecure() {
+        RandomSource.secure().nextBytes(target);
+        return target;
+    }
+
+    @Benchmark
+    public byte[] bufferedFast() {
+        RandomSource.fast().nextBytes(target);
+        return target;
+    }
+}
@@ -0,0 +1,87 @@
+package convertor;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SecureStringConverterBenchmark {
+
+    @Param({"16", "256", "4096"})
+    public int payloadSize;
+
+    private SecureStringConverter converter;
+    private SecureStringConverter compressing;
+    private String plain;
+    private String encrypted;
+    private String json;
+    private String compressedJson;
+    private ByteBuffer sealed;
+
+    @State(Scope.Thread)
+    public static class DirectBuffers {
+        ByteBuffer plain;
+        ByteBuffer out;
+
+        @Setup
+        public void setup(SecureStringConverterBenchmark benchmark) {
+            plain = ByteBuffer.allocateDirect(benchmark.payloadSize * 4);
+            out = ByteBuffer.allocateDirect(SecureStringConverter.maxConvertedLength(benchmark.payloadSize * 4));
+        }
+    }
+
+    @Setup
+    public void setup() throws Exception {
+        converter = new SecureStringConverter("benchmark_password");
+        plain = Payloads.text(payloadSize);
+        encrypted = converter.convert(plain);
+        compressing = new SecureStringConverter("benchmark_password", converter.getKeyCache(), 256);
+        json = Payloads.json(payloadSize);
+        compressedJson = compressing.convert(json);
+        byte[] bytes = plain.getBytes(StandardCharsets.UTF_8);
+        sealed = ByteBuffer.allocateDirect(SecureStringConverter.maxConvertedLength(bytes.length));
+        converter.convert(ByteBuffer.wrap(bytes), sealed);
+        sealed.flip();
+    }
+
+    @Benchmark
+    public String convert() throws Exception {
+        return converter.convert(plain);
+    }
+
+    @Benchmark
+    public String revert() throws Exception {
+        return converter.revert(encrypted);
+    }
+
+    // Repetitive JSON without and with compression before encryption
+    @Benchmark
+    public String convertJson() throws Exception {
+        return converter.convert(json);
+    }
+
+    @Benchmark
+    public String convertJsonCompressed() throws Exception {
+        return compressing.convert(json);
+    }
+
+    @Benchmark
+    public String revertJsonCompressed() throws Exception {
+        return compressing.revert(compressedJson);
+    }
+
+    // Binary, direct-buffer path; the key is cached, so this is the per-record cost without Base58 and copies
+    @Benchmark
+    public ByteBuffer revertDirectBuffer(DirectBuffers buffers) throws Exception {
+        buffers.out.clear();
+        converter.revert(sealed.duplicate(), buffers.out);
+        return buffers.out;
+    }
+}
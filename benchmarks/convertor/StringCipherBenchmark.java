@@ -0,0 +1,67 @@
+package convertor;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StringCipherBenchmark {
+
+    @Param({"16", "256", "4096"})
+    public int payloadSize;
+
+    private StringCipher cipher;
+    private String plain;
+    private String encrypted;
+    private byte[] plainBytes;
+    private byte[] hexBytes;
+
+    @State(Scope.Thread)
+    public static class Buffers {
+        byte[] hex;
+        byte[] raw;
+
+        @Setup
+        public void setup(StringCipherBenchmark benchmark) {
+            hex = new byte[benchmark.payloadSize * 2];
+            raw = new byte[benchmark.payloadSize];
+        }
+    }
+
+    @Setup
+    public void setup() {
+        cipher = new StringCipher("benchmark_password");
+        plain = Payloads.text(payloadSize);
+        encrypted = cipher.encrypt(plain);
+        plainBytes = plain.getBytes(StandardCharsets.UTF_8);
+        hexBytes = encrypted.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    @Benchmark
+    public String encrypt() {
+        return cipher.encrypt(plain);
+    }
+
+    @Benchmark
+    public String decrypt() {
+        return cipher.decrypt(encrypted);
+    }
+
+    @Benchmark
+    public byte[] encryptIntoBuffer(Buffers buffers) {
+        cipher.encrypt(plainBytes, 0, plainBytes.length, buffers.hex, 0);
+        return buffers.hex;
+    }
+
+    @Benchmark
+    public byte[] decryptIntoBuffer(Buffers buffers) {
+        cipher.decrypt(hexBytes, 0, hexBytes.length, buffers.raw, 0);
+        return buffers.raw;
+    }
+}
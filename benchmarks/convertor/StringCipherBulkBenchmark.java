@@ -0,0 +1,67 @@
+package convertor;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bulk (log masking) throughput of the scalar and vector StringCipher kernels.
+ * The {@code bytes} counter reports plaintext bytes per second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class StringCipherBulkBenchmark {
+
+    @Param({"65536", "1048576"})
+    public int payloadSize;
+
+    @Param({"true", "false"})
+    public boolean vector;
+
+    private StringCipher cipher;
+    private byte[] plain;
+    private byte[] hex;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Bytes {
+        public long bytes;
+        byte[] hex;
+        byte[] raw;
+
+        @Setup(Level.Iteration)
+        public void setup(StringCipherBulkBenchmark benchmark) {
+            bytes = 0;
+            hex = new byte[benchmark.payloadSize * 2];
+            raw = new byte[benchmark.payloadSize];
+        }
+    }
+
+    @Setup
+    public void setup() {
+        cipher = new StringCipher("benchmark_password", vector);
+        plain = new byte[payloadSize];
+        new Random(payloadSize).nextBytes(plain);
+        hex = new byte[payloadSize * 2];
+        cipher.encrypt(plain, 0, plain.length, hex, 0);
+    }
+
+    @Benchmark
+    public byte[] encrypt(Bytes counter) {
+        cipher.encrypt(plain, 0, plain.length, counter.hex, 0);
+        counter.bytes += plain.length;
+        return counter.hex;
+    }
+
+    @Benchmark
+    public byte[] decrypt(Bytes counter) {
+        cipher.decrypt(hex, 0, hex.length, counter.raw, 0);
+        counter.bytes += plain.length;
+        return counter.raw;
+    }
+}
@@ -0,0 +1,53 @@
+package convertor;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StringHandlerBenchmark {
+
+    @Param({"16", "256", "4096"})
+    public int payloadSize;
+
+    private String plain;
+    private String transformed;
+    private byte[] plainBytes;
+    private byte[] out;
+
+    @Setup
+    public void setup() {
+        plain = Payloads.text(payloadSize);
+        transformed = StringHandler.transformString(plain);
+        plainBytes = plain.getBytes(StandardCharsets.UTF_8);
+        out = new byte[StringHandler.maxTransformedLength(plainBytes.length)];
+    }
+
+    @Benchmark
+    public String transformString() {
+        return StringHandler.transformString(plain);
+    }
+
+    @Benchmark
+    public String reverse() {
+        return StringHandler.reverse(transformed);
+    }
+
+    // Line bytes in, bytes out: what GeneratorPipeline pays around transformString ...
+    @Benchmark
+    public byte[] transformDecodeEncode() {
+        return StringHandler.transformString(new String(plainBytes, StandardCharsets.UTF_8)).getBytes(StandardCharsets.UTF_8);
+    }
+
+    // ... and what ByteGeneratorPipeline pays
+    @Benchmark
+    public int transformBytes() {
+        return StringHandler.transformBytes(plainBytes, 0, plainBytes.length, out, 0);
+    }
+}
@@ -0,0 +1,56 @@
+package convertor;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StringUUIDConverterBenchmark {
+
+    @Param({"16", "256", "4096"})
+    public int payloadSize;
+
+    private StringUUIDConverter converter;
+    private String plain;
+    private UUID uuid;
+    // Map-free mode; inputs must fit in one block, so the payload size does not apply
+    private StringUUIDConverter directConverter;
+    private String shortPlain;
+    private UUID directUuid;
+
+    @Setup
+    public void setup() {
+        converter = new StringUUIDConverter("benchmark_salt");
+        plain = Payloads.text(payloadSize);
+        uuid = converter.convertToUUID(plain);
+        directConverter = new StringUUIDConverter("benchmark_salt", false, true);
+        shortPlain = Payloads.text(UUIDBlockCipher.MAX_LENGTH);
+        directUuid = directConverter.convertToUUID(shortPlain);
+    }
+
+    @Benchmark
+    public UUID convertToUUID() {
+        return converter.convertToUUID(plain);
+    }
+
+    @Benchmark
+    public String convertFromUUID() {
+        return converter.convertFromUUID(uuid);
+    }
+
+    @Benchmark
+    public UUID convertToUUIDDirect() {
+        return directConverter.convertToUUID(shortPlain);
+    }
+
+    @Benchmark
+    public String convertFromUUIDDirect() {
+        return directConverter.convertFromUUID(directUuid);
+    }
+}
@@ -0,0 +1,443 @@
+package convertor;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Base58 codec (Bitcoin alphabet) working on machine-word limbs.
+ * <p>
+ * Encoding folds 32 input bits at a time into base 58^5 limbs, and decoding
+ * folds five Base58 digits at a time into base 2^32 limbs, which cuts the
+ * inner-loop work of the byte-by-byte {@code divmod} approach by more than an
+ * order of magnitude.
+ * The into-buffer methods only use thread-local scratch, so they do not
+ * allocate once warmed up. Output is identical to {@link Reference}.
+ */
+public final class Base58 {
+    private static final char[] ALPHABET =
+            "123456789ABCDEFGHJKLMNPQRSTUVWXYZabcdefghijkmnopqrstuvwxyz".toCharArray();
+    private static final int[] INDEXES = new int[128];
+
+    // 58^5 fits in 30 bits, so limb * 2^32 + carry still fits in a long
+    private static final long BASE58_5 = 58L * 58 * 58 * 58 * 58;
+    private static final long[] POW58 = {1, 58, 58 * 58, 58 * 58 * 58, 58L * 58 * 58 * 58, BASE58_5};
+
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    static {
+        Arrays.fill(INDEXES, -1);
+        for (int i = 0; i < ALPHABET.length; i++) {
+            INDEXES[ALPHABET[i]] = i;
+        }
+    }
+
+    private Base58() {
+    }
+
+    /**
+     * Upper bound of the encoded length for {@code byteLength} input bytes
+     */
+    public static int maxEncodedLength(int byteLength) {
+        // log(256) / log(58) < 1.366
+        return (int) ((byteLength * 1366L + 999) / 1000) + 1;
+    }
+
+    /**
+     * Upper bound of the decoded length for {@code charLength} Base58 characters
+     */
+    public static int maxDecodedLength(int charLength) {
+        // log(58) / log(256) < 0.733
+        return (int) ((charLength * 733L + 999) / 1000) + 1;
+    }
+
+    public static String encode(byte[] input) {
+        if (input.length == 0) {
+            return "";
+        }
+        byte[] out = new byte[maxEncodedLength(input.length)];
+        int n = encode(input, 0, input.length, out, 0);
+        return new String(out, 0, n, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Encode {@code src[off, off+len)} into {@code dst} as Base58 characters
+     *
+     * @return number of characters written
+     */
+    public static int encode(byte[] src, int off, int len, char[] dst, int dstOff) {
+        Scratch scratch = SCRATCH.get();
+        int zeros = leadingZeroBytes(src, off, len);
+        int used = toBase58Limbs(src, off + zeros, len - zeros, scratch);
+        int total = zeros + digitCount(scratch.limbs, used);
+        checkCapacity(dst.length - dstOff, total);
+
+        Arrays.fill(dst, dstOff, dstOff + zeros, ALPHABET[0]);
+        int pos = dstOff + total;
+        int[] limbs = scratch.limbs;
+        for (int i = 0; i < used; i++) {
+            long limb = limbs[i];
+            boolean top = i == used - 1;
+            for (int d = 0; d < 5 && (!top || limb != 0); d++) {
+                dst[--pos] = ALPHABET[(int) (limb % 58)];
+                limb /= 58;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Encode {@code src[off, off+len)} into {@code dst} as ASCII bytes
+     *
+     * @return number of bytes written
+     */
+    public static int encode(byte[] src, int off, int len, byte[] dst, int dstOff) {
+        Scratch scratch = SCRATCH.get();
+        int zeros = leadingZeroBytes(src, off, len);
+        int used = toBase58Limbs(src, off + zeros, len - zeros, scratch);
+        int total = zeros + digitCount(scratch.limbs, used);
+        checkCapacity(dst.length - dstOff, total);
+
+        Arrays.fill(dst, dstOff, dstOff + zeros, (byte) ALPHABET[0]);
+        int pos = dstOff + total;
+        int[] limbs = scratch.limbs;
+        for (int i = 0; i < used; i++) {
+            long limb = limbs[i];
+            boolean top = i == used - 1;
+            for (int d = 0; d < 5 && (!top || limb != 0); d++) {
+                dst[--pos] = (byte) ALPHABET[(int) (limb % 58)];
+                limb /= 58;
+            }
+        }
+        return total;
+    }
+
+    public static byte[] decode(CharSequence input) {
+        int len = input.length();
+        if (len == 0) {
+            return new byte[0];
+        }
+        Scratch scratch = SCRATCH.get();
+        byte[] digits = scratch.digits(len);
+        for (int i = 0; i < len; i++) {
+            digits[i] = digit(input.charAt(i));
+        }
+        byte[] out = new byte[maxDecodedLength(len)];
+        int n = decodeDigits(digits, len, out, 0, scratch);
+        return n == out.length ? out : Arrays.copyOf(out, n);
+    }
+
+    /**
+     * Decode Base58 characters {@code src[off, off+len)} into {@code dst}
+     *
+     * @return number of bytes written
+     */
+    public static int decode(char[] src, int off, int len, byte[] dst, int dstOff) {
+        Scratch scratch = SCRATCH.get();
+        byte[] digits = scratch.digits(len);
+        for (int i = 0; i < len; i++) {
+            digits[i] = digit(src[off + i]);
+        }
+        return decodeDigits(digits, len, dst, dstOff, scratch);
+    }
+
+    /**
+     * Decode ASCII Base58 bytes {@code src[off, off+len)} into {@code dst}
+     *
+     * @return number of bytes written
+     */
+    public static int decode(byte[] src, int off, int len, byte[] dst, int dstOff) {
+        Scratch scratch = SCRATCH.get();
+        byte[] digits = scratch.digits(len);
+        for (int i = 0; i < len; i++) {
+            digits[i] = digit((char) (src[off + i] & 0xFF));
+        }
+        return decodeDigits(digits, len, dst, dstOff, scratch);
+    }
+
+    private static byte digit(char c) {
+        int digit58 = c < 128 ? INDEXES[c] : -1;
+        if (digit58 < 0) {
+            throw new IllegalArgumentException("Invalid Base58 character: " + c);
+        }
+        return (byte) digit58;
+    }
+
+    private static int leadingZeroBytes(byte[] src, int off, int len) {
+        int zeros = 0;
+        while (zeros < len && src[off + zeros] == 0) {
+            zeros++;
+        }
+        return zeros;
+    }
+
+    /**
+     * Fold the big-endian number {@code src[off, off+len)} into little-endian base 58^5 limbs
+     */
+    private static int toBase58Limbs(byte[] src, int off, int len, Scratch scratch) {
+        int[] limbs = scratch.limbs(len / 3 + 2);
+        int used = 0;
+        int pos = off;
+        int end = off + len;
+        // Leading partial word first, so the rest is whole 32-bit words
+        int head = len & 3;
+        while (pos < end) {
+            int take = head != 0 ? head : 4;
+            head = 0;
+            long carry = 0;
+            for (int k = 0; k < take; k++) {
+                carry = (carry << 8) | (src[pos++] & 0xFF);
+            }
+            int shift = take * 8;
+            for (int i = 0; i < used; i++) {
+                long t = ((long) limbs[i] << shift) + carry;
+                limbs[i] = (int) (t % BASE58_5);
+                carry = t / BASE58_5;
+            }
+            while (carry != 0) {
+                limbs[used++] = (int) (carry % BASE58_5);
+                carry /= BASE58_5;
+            }
+        }
+        return used;
+    }
+
+    private static int digitCount(int[] limbs, int used) {
+        if (used == 0) {
+            return 0;
+        }
+        int top = limbs[used - 1];
+        int digits = 0;
+        while (top != 0) {
+            digits++;
+            top /= 58;
+        }
+        return (used - 1) * 5 + digits;
+    }
+
+    private static int decodeDigits(byte[] digits, int len, byte[] dst, int dstOff, Scratch scratch) {
+        int zeros = 0;
+        while (zeros < len && digits[zeros] == 0) {
+            zeros++;
+        }
+
+        // Fold five digits at a time into little-endian base 2^32 limbs
+        int[] limbs = scratch.limbs(len / 5 + 2);
+        int used = 0;
+        int pos = zeros;
+        int head = (len - zeros) % 5;
+        while (pos < len) {
+            int take = head != 0 ? head : 5;
+            head = 0;
+            long carry = 0;
+            for (int k = 0; k < take; k++) {
+                carry = carry * 58 + digits[pos++];
+            }
+            long mul = POW58[take];
+            for (int i = 0; i < used; i++) {
+                long t = (limbs[i] & 0xFFFFFFFFL) * mul + carry;
+                limbs[i] = (int) t;
+                carry = t >>> 32;
+            }
+            while (carry != 0) {
+                limbs[used++] = (int) carry;
+                carry >>>= 32;
+            }
+        }
+
+        int topBytes = 0;
+        if (used > 0) {
+            int top = limbs[used - 1];
+            topBytes = 4 - Integer.numberOfLeadingZeros(top) / 8;
+        }
+        int total = zeros + (used > 0 ? (used - 1) * 4 + topBytes : 0);
+        checkCapacity(dst.length - dstOff, total);
+
+        Arrays.fill(dst, dstOff, dstOff + zeros, (byte) 0);
+        int out = dstOff + total;
+        for (int i = 0; i < used; i++) {
+            int limb = limbs[i];
+            int bytes = i == used - 1 ? topBytes : 4;
+            for (int b = 0; b < bytes; b++) {
+                dst[--out] = (byte) limb;
+                limb >>>= 8;
+            }
+        }
+        return total;
+    }
+
+    private static void checkCapacity(int available, int needed) {
+        if (available < needed) {
+            throw new IndexOutOfBoundsException("Output buffer too small: need " + needed + ", have " + available);
+        }
+    }
+
+    private static final class Scratch {
+        int[] limbs = new int[64];
+        byte[] digits = new byte[256];
+
+        int[] limbs(int size) {
+            if (limbs.length < size) {
+                limbs = new int[Math.max(size, limbs.length * 2)];
+            }
+            return limbs;
+        }
+
+        byte[] digits(int size) {
+            if (digits.length < size) {
+                digits = new byte[Math.max(size, digits.length * 2)];
+            }
+            return digits;
+        }
+    }
+
+    /**
+     * The original byte-at-a-time codec, kept for cross-checks and benchmarks
+     */
+    static final class Reference {
+
+        public static String encode(byte[] input) {
+            if (input.length == 0) {
+                return "";
+            }
+            input = input.clone();
+
+            // 计算前导零
+            int zeros = 0;
+            while (zeros < input.length && input[zeros] == 0) {
+                zeros++;
+            }
+
+            byte[] temp = new byte[input.length * 2];
+            int j = temp.length;
+
+            int startAt = zeros;
+            while (startAt < input.length) {
+                byte mod = divmod58(input, startAt);
+                if (input[startAt] == 0) {
+                    startAt++;
+                }
+                temp[--j] = (byte) ALPHABET[mod];
+            }
+
+            while (j < temp.length && temp[j] == ALPHABET[0]) {
+                ++j;
+            }
+
+            while (--zeros >= 0) {
+                temp[--j] = (byte) ALPHABET[0];
+            }
+
+            byte[] output = new byte[temp.length - j];
+            System.arraycopy(temp, j, output, 0, output.length);
+            return new String(output);
+        }
+
+        public static byte[] decode(String input) {
+            if (input.length() == 0) {
+                return new byte[0];
+            }
+
+            byte[] input58 = new byte[input.length()];
+            for (int i = 0; i < input.length(); i++) {
+                input58[i] = digit(input.charAt(i));
+            }
+
+            int zeros = 0;
+            while (zeros < input58.length && input58[zeros] == 0) {
+                zeros++;
+            }
+
+            byte[] temp = new byte[input.length()];
+            int j = temp.length;
+
+            int startAt = zeros;
+            while (startAt < input58.length) {
+                byte mod = divmod256(input58, startAt);
+                if (input58[startAt] == 0) {
+                    startAt++;
+                }
+                temp[--j] = mod;
+            }
+
+            while (j < temp.length && temp[j] == 0) {
+                ++j;
+            }
+
+            byte[] output = new byte[temp.length - j + zeros];
+            System.arraycopy(temp, j, output, zeros, temp.length - j);
+            return output;
+        }
+
+        private static byte divmod58(byte[] number, int startAt) {
+            int remainder = 0;
+            for (int i = startAt; i < number.length; i++) {
+                int digit256 = number[i] & 0xFF;
+                int temp = remainder * 256 + digit256;
+                number[i] = (byte) (temp / 58);
+                remainder = temp % 58;
+            }
+            return (byte) remainder;
+        }
+
+        private static byte divmod256(byte[] number58, int startAt) {
+            int remainder = 0;
+            for (int i = startAt; i < number58.length; i++) {
+                int digit58 = number58[i] & 0xFF;
+                int temp = remainder * 58 + digit58;
+                number58[i] = (byte) (temp / 256);
+                remainder = temp % 256;
+            }
+            return (byte) remainder;
+        }
+    }
+
+    // 与原实现对比：结果一致性 + 吞吐
+    public static void main(String[] args) {
+        Random random = new Random(42);
+        for (int n = 0; n < 2000; n++) {
+            byte[] data = new byte[random.nextInt(300)];
+            random.nextBytes(data);
+            for (int z = random.nextInt(4); z > 0 && z <= data.length; z--) {
+                data[z - 1] = 0;
+            }
+            String expected = Reference.encode(data);
+            String actual = encode(data);
+            if (!expected.equals(actual) || !Arrays.equals(decode(actual), Reference.decode(expected))
+                    || !Arrays.equals(decode(actual), data)) {
+                throw new IllegalStateException("Mismatch for input of length " + data.length);
+            }
+        }
+        System.out.println("Output identical to reference codec");
+
+        for (int size : new int[]{64, 256, 1024, 4096}) {
+            byte[] data = new byte[size];
+            random.nextBytes(data);
+            String encoded = encode(data);
+            char[] chars = new char[maxEncodedLength(size)];
+            byte[] bytes = new byte[maxDecodedLength(encoded.length())];
+            int rounds = Math.max(20, 500_000 / size);
+
+            for (int warmup = 0; warmup < 3; warmup++) {
+                long startTime = System.nanoTime();
+                for (int i = 0; i < rounds; i++) {
+                    Reference.decode(Reference.encode(data));
+                }
+                long reference = System.nanoTime() - startTime;
+
+                startTime = System.nanoTime();
+                for (int i = 0; i < rounds; i++) {
+                    int n = encode(data, 0, size, chars, 0);
+                    decode(chars, 0, n, bytes, 0);
+                }
+                long fast = System.nanoTime() - startTime;
+
+                if (warmup == 2) {
+                    System.out.printf("%5d bytes: reference %.2f us/op, limbs %.2f us/op (%.1fx)%n",
+                            size, reference / 1000.0 / rounds, fast / 1000.0 / rounds,
+                            (double) reference / fast);
+                }
+            }
+        }
+    }
+}
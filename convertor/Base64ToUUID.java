@@ -1,5 +1,6 @@
 package convertor;
 
+import java.util.Arrays;
 import java.util.Base64;
 import java.util.UUID;
 
@@ -56,8 +57,150 @@ public class Base64ToUUID {
         return Base64.getEncoder().encodeToString(uuidBytes);
     }
 
+    // URL-safe Base64 alphabet, used by the direct 22-char codec below.
+    // Layout: chars 0-9 hold msb bits 63..4, char 10 holds msb bits 3..0 and lsb bits 63..62,
+    // chars 11-20 hold lsb bits 61..2 and char 21 holds lsb bits 1..0 plus 4 zero bits.
+    // Each overload indexes its own array directly; routing them through one CharSequence-based
+    // helper made the hot loop megamorphic and several times slower.
+    private static final char[] URL_ALPHABET =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_".toCharArray();
+    private static final byte[] URL_VALUES = new byte[128];
+
+    // Length of an unpadded URL-safe Base64 UUID
+    public static final int URL_LENGTH = 22;
+
+    static {
+        Arrays.fill(URL_VALUES, (byte) -1);
+        for (int i = 0; i < URL_ALPHABET.length; i++) {
+            URL_VALUES[URL_ALPHABET[i]] = (byte) i;
+        }
+    }
+
+    // Convert a UUID to a 22-char URL-safe, unpadded Base64 string
+    // (same text as Base64.getUrlEncoder().withoutPadding() on the 16 UUID bytes)
+    public static String uuidToBase64Url(UUID uuid) {
+        char[] chars = new char[URL_LENGTH];
+        encodeUrl(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), chars, 0);
+        return new String(chars);
+    }
+
+    // Convert a 22-char URL-safe, unpadded Base64 string back to a UUID
+    public static UUID base64UrlToUUID(CharSequence base64Url) {
+        if (base64Url.length() != URL_LENGTH) {
+            throw new IllegalArgumentException("URL-safe Base64 UUID must be exactly 22 characters");
+        }
+        long mostSigBits = 0;
+        for (int i = 0; i < 10; i++) {
+            mostSigBits = (mostSigBits << 6) | urlValue(base64Url.charAt(i));
+        }
+        int bridge = urlValue(base64Url.charAt(10));
+        long leastSigBits = bridge & 0x3;
+        for (int i = 11; i < 21; i++) {
+            leastSigBits = (leastSigBits << 6) | urlValue(base64Url.charAt(i));
+        }
+        return new UUID((mostSigBits << 4) | (bridge >>> 2),
+                (leastSigBits << 2) | lastValue(base64Url.charAt(21)));
+    }
+
+    // Write the 22 chars for (msb, lsb) into dst starting at off
+    public static void encodeUrl(long mostSigBits, long leastSigBits, char[] dst, int off) {
+        for (int i = 0; i < 10; i++) {
+            dst[off + i] = URL_ALPHABET[(int) (mostSigBits >>> (58 - 6 * i)) & 0x3F];
+        }
+        dst[off + 10] = URL_ALPHABET[(int) ((mostSigBits & 0xF) << 2 | leastSigBits >>> 62)];
+        for (int i = 0; i < 10; i++) {
+            dst[off + 11 + i] = URL_ALPHABET[(int) (leastSigBits >>> (56 - 6 * i)) & 0x3F];
+        }
+        dst[off + 21] = URL_ALPHABET[(int) (leastSigBits & 0x3) << 4];
+    }
+
+    // Write the 22 chars for (msb, lsb) into dst starting at off, as ASCII bytes
+    public static void encodeUrl(long mostSigBits, long leastSigBits, byte[] dst, int off) {
+        for (int i = 0; i < 10; i++) {
+            dst[off + i] = (byte) URL_ALPHABET[(int) (mostSigBits >>> (58 - 6 * i)) & 0x3F];
+        }
+        dst[off + 10] = (byte) URL_ALPHABET[(int) ((mostSigBits & 0xF) << 2 | leastSigBits >>> 62)];
+        for (int i = 0; i < 10; i++) {
+            dst[off + 11 + i] = (byte) URL_ALPHABET[(int) (leastSigBits >>> (56 - 6 * i)) & 0x3F];
+        }
+        dst[off + 21] = (byte) URL_ALPHABET[(int) (leastSigBits & 0x3) << 4];
+    }
+
+    // Bulk encode: uuids holds (msb, lsb) pairs; writes count * 22 chars to dst
+    public static void encodeUrl(long[] uuids, int uuidOff, int count, char[] dst, int dstOff) {
+        for (int i = 0; i < count; i++) {
+            encodeUrl(uuids[uuidOff + 2 * i], uuids[uuidOff + 2 * i + 1], dst, dstOff + URL_LENGTH * i);
+        }
+    }
+
+    // Bulk encode: uuids holds (msb, lsb) pairs; writes count * 22 ASCII bytes to dst
+    public static void encodeUrl(long[] uuids, int uuidOff, int count, byte[] dst, int dstOff) {
+        for (int i = 0; i < count; i++) {
+            encodeUrl(uuids[uuidOff + 2 * i], uuids[uuidOff + 2 * i + 1], dst, dstOff + URL_LENGTH * i);
+        }
+    }
+
+    // Bulk decode: reads count * 22 chars from src and writes (msb, lsb) pairs to uuids
+    public static void decodeUrl(char[] src, int srcOff, int count, long[] uuids, int uuidOff) {
+        for (int n = 0; n < count; n++) {
+            int p = srcOff + URL_LENGTH * n;
+            long mostSigBits = 0;
+            for (int i = 0; i < 10; i++) {
+                mostSigBits = (mostSigBits << 6) | urlValue(src[p + i]);
+            }
+            int bridge = urlValue(src[p + 10]);
+            long leastSigBits = bridge & 0x3;
+            for (int i = 11; i < 21; i++) {
+                leastSigBits = (leastSigBits << 6) | urlValue(src[p + i]);
+            }
+            uuids[uuidOff + 2 * n] = (mostSigBits << 4) | (bridge >>> 2);
+            uuids[uuidOff + 2 * n + 1] = (leastSigBits << 2) | lastValue(src[p + 21]);
+        }
+    }
+
+    // Bulk decode: reads count * 22 ASCII bytes from src and writes (msb, lsb) pairs to uuids
+    public static void decodeUrl(byte[] src, int srcOff, int count, long[] uuids, int uuidOff) {
+        for (int n = 0; n < count; n++) {
+            int p = srcOff + URL_LENGTH * n;
+            long mostSigBits = 0;
+            for (int i = 0; i < 10; i++) {
+                mostSigBits = (mostSigBits << 6) | urlValue(src[p + i]);
+            }
+            int bridge = urlValue(src[p + 10]);
+            long leastSigBits = bridge & 0x3;
+            for (int i = 11; i < 21; i++) {
+                leastSigBits = (leastSigBits << 6) | urlValue(src[p + i]);
+            }
+            uuids[uuidOff + 2 * n] = (mostSigBits << 4) | (bridge >>> 2);
+            uuids[uuidOff + 2 * n + 1] = (leastSigBits << 2) | lastValue(src[p + 21]);
+        }
+    }
+
+    private static int urlValue(int c) {
+        int value = c >= 0 && c < 128 ? URL_VALUES[c] : -1;
+        if (value < 0) {
+            throw new IllegalArgumentException("Invalid URL-safe Base64 character: " + (char) (c & 0xFFFF));
+        }
+        return value;
+    }
+
+    // The last char only carries 2 bits; the 4 padding bits must be zero
+    private static int lastValue(int c) {
+        int value = urlValue(c);
+        if ((value & 0xF) != 0) {
+            throw new IllegalArgumentException("Non-canonical URL-safe Base64 UUID ending: " + (char) c);
+        }
+        return value >>> 4;
+    }
+
     public static void main(String[] args) {
         try {
+            // Direct 22-char URL-safe form and back
+            UUID randomUuid = UUID.randomUUID();
+            String base64Url = uuidToBase64Url(randomUuid);
+            System.out.println("UUID: " + randomUuid + " -> URL-safe Base64: " + base64Url);
+            System.out.println("Decoded again: " + base64UrlToUUID(base64Url));
+
             // Example Base64 string that represents a 16-byte binary data for UUID
             String base64Str = "4Vn+84d66X0VZpuL6r+5ct2w4GB1kBm8GuWGQE4ALb0/ykiVRFEZqQda9aWu+aF5";
 
@@ -0,0 +1,241 @@
+package convertor;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Compact binary container for converted records, with O(1) access to record N.
+ * <p>
+ * Layout (big-endian):
+ * <pre>
+ * header  : magic "CVB1" | version(1) | salt(16)
+ * record* : length(4) | iv(12) | ciphertext + tag   (length counts iv + ciphertext + tag)
+ * index   : offset(8) per record
+ * footer  : indexOffset(8) | recordCount(8) | magic "CVB1"
+ * </pre>
+ * All records share the salt in the header, so the key is derived once per file
+ * instead of once per record; each record still gets a random IV. The record
+ * number is part of the associated data, so records can not be swapped. Records
+ * are kept as raw bytes, without the Base58 inflation of the text output.
+ */
+public final class BinaryRecordFile {
+    private static final int MAGIC = 0x43564231; // "CVB1"
+    private static final byte VERSION = 1;
+    private static final int SALT_LENGTH = 16;
+    private static final int IV_LENGTH = 12;
+    private static final int GCM_TAG_LENGTH = 128;
+    private static final int HEADER_LENGTH = 4 + 1 + SALT_LENGTH;
+    private static final int FOOTER_LENGTH = 8 + 8 + 4;
+    // Bounded so each mapped window plus its overlap stays under 2 GB
+    static final int MAX_RECORD_LENGTH = 16 * 1024 * 1024;
+    private static final long WINDOW_SIZE = 1L << 30;
+    // A record starting anywhere in a window, length prefix included, ends inside that window's mapping
+    private static final long WINDOW_OVERLAP = 4 + MAX_RECORD_LENGTH;
+
+    private BinaryRecordFile() {
+    }
+
+    public static Writer create(Path path, SecureStringConverter converter) throws Exception {
+        return new Writer(path, converter);
+    }
+
+    public static Reader open(Path path, SecureStringConverter converter) throws Exception {
+        return new Reader(path, converter);
+    }
+
+    private static byte[] aad(byte[] salt, long index) {
+        return ByteBuffer.allocate(SALT_LENGTH + 8).put(salt).putLong(index).array();
+    }
+
+    /**
+     * Appends records; the index is spooled to a side file and attached on {@link #close()}.
+     * Not thread-safe.
+     */
+    public static final class Writer implements Closeable {
+        private final Path indexSpool;
+        private final DataOutputStream out;
+        private final DataOutputStream index;
+        private final byte[] salt;
+        private final SecretKey key;
+        private long position;
+        private long count;
+
+        private Writer(Path path, SecureStringConverter converter) throws Exception {
+            this.indexSpool = path.resolveSibling(path.getFileName() + ".idx");
+            this.salt = CryptoContext.get().randomBytes(SALT_LENGTH);
+            this.key = converter.keyFor(salt);
+            this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), 1 << 16));
+            this.index = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(indexSpool), 1 << 16));
+
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.write(salt);
+            position = HEADER_LENGTH;
+        }
+
+        /**
+         * Encrypt and append one record
+         *
+         * @return the record number
+         */
+        public long append(String plain) throws Exception {
+            return append(plain.getBytes(StandardCharsets.UTF_8));
+        }
+
+        public long append(byte[] plain) throws Exception {
+            CryptoContext ctx = CryptoContext.get();
+            byte[] iv = ctx.randomBytes(IV_LENGTH);
+            Cipher cipher = ctx.gcmCipher();
+            cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(GCM_TAG_LENGTH, iv));
+            cipher.updateAAD(aad(salt, count));
+            byte[] cipherText = cipher.doFinal(plain);
+
+            int length = IV_LENGTH + cipherText.length;
+            if (length > MAX_RECORD_LENGTH) {
+                throw new IllegalArgumentException("Record too large: " + plain.length + " bytes");
+            }
+            index.writeLong(position);
+            out.writeInt(length);
+            out.write(iv);
+            out.write(cipherText);
+            position += 4 + length;
+            return count++;
+        }
+
+        public long recordCount() {
+            return count;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                index.close();
+                long indexOffset = position;
+                // Append the spooled index without holding it in memory
+                out.flush();
+                try (FileChannel spool = FileChannel.open(indexSpool, StandardOpenOption.READ)) {
+                    spool.transferTo(0, spool.size(), Channels.newChannel(out));
+                }
+                out.writeLong(indexOffset);
+                out.writeLong(count);
+                out.writeInt(MAGIC);
+            } finally {
+                out.close();
+                Files.deleteIfExists(indexSpool);
+            }
+        }
+    }
+
+    /**
+     * Memory-mapped reader; {@link #revert(long)} touches only the index entry and the record
+     */
+    public static final class Reader implements Closeable {
+        private final FileChannel channel;
+        private final MappedByteBuffer[] windows;
+        private final byte[] salt = new byte[SALT_LENGTH];
+        private final SecretKey key;
+        private final long indexOffset;
+        private final long count;
+
+        private Reader(Path path, SecureStringConverter converter) throws Exception {
+            this.channel = FileChannel.open(path, StandardOpenOption.READ);
+            try {
+                long size = channel.size();
+                if (size < HEADER_LENGTH + FOOTER_LENGTH) {
+                    throw new IOException("Not a binary record file: " + path);
+                }
+                // Windows overlap by one maximal record (length prefix + MAX_RECORD_LENGTH),
+                // so a record never straddles two mappings
+                int windowCount = (int) ((size + WINDOW_SIZE - 1) / WINDOW_SIZE);
+                windows = new MappedByteBuffer[windowCount];
+                for (int i = 0; i < windowCount; i++) {
+                    long start = i * WINDOW_SIZE;
+                    long length = Math.min(size - start, WINDOW_SIZE + WINDOW_OVERLAP);
+                    windows[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+                }
+
+                if (intAt(0) != MAGIC || intAt(size - 4) != MAGIC) {
+                    throw new IOException("Not a binary record file: " + path);
+                }
+                if (window(4).get(local(4)) != VERSION) {
+                    throw new IOException("Unsupported binary record file version");
+                }
+                window(5).get(local(5), salt);
+                indexOffset = longAt(size - FOOTER_LENGTH);
+                count = longAt(size - FOOTER_LENGTH + 8);
+                if (indexOffset + count * 8 != size - FOOTER_LENGTH) {
+                    throw new IOException("Corrupt binary record file index: " + path);
+                }
+                key = converter.keyFor(salt);
+            } catch (Exception e) {
+                channel.close();
+                throw e;
+            }
+        }
+
+        public long recordCount() {
+            return count;
+        }
+
+        /**
+         * Decrypt record {@code n} (0-based)
+         */
+        public String revert(long n) throws Exception {
+            if (n < 0 || n >= count) {
+                throw new IndexOutOfBoundsException("Record " + n + " of " + count);
+            }
+            long offset = longAt(indexOffset + n * 8);
+            int length = intAt(offset);
+            if (length <= IV_LENGTH || length > MAX_RECORD_LENGTH) {
+                throw new IOException("Corrupt record " + n);
+            }
+
+            ByteBuffer record = window(offset).duplicate();
+            int start = local(offset) + 4;
+            byte[] iv = new byte[IV_LENGTH];
+            record.get(start, iv);
+            record.limit(start + length).position(start + IV_LENGTH);
+
+            Cipher cipher = CryptoContext.get().gcmCipher();
+            cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(GCM_TAG_LENGTH, iv));
+            cipher.updateAAD(aad(salt, n));
+            ByteBuffer plain = ByteBuffer.allocate(cipher.getOutputSize(record.remaining()));
+            cipher.doFinal(record, plain);
+            return new String(plain.array(), 0, plain.position(), StandardCharsets.UTF_8);
+        }
+
+        private MappedByteBuffer window(long offset) {
+            return windows[(int) (offset / WINDOW_SIZE)];
+        }
+
+        private int local(long offset) {
+            return (int) (offset % WINDOW_SIZE);
+        }
+
+        private int intAt(long offset) {
+            return window(offset).getInt(local(offset));
+        }
+
+        private long longAt(long offset) {
+            return window(offset).getLong(local(offset));
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
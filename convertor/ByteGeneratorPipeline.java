@@ -0,0 +1,332 @@
+package convertor;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Byte-level variant of {@link GeneratorPipeline} that never decodes a line to a {@code String}.
+ * <p>
+ * The reader cuts the raw input into batches of complete lines. Workers
+ * transform each line on its UTF-8 bytes ({@link StringHandler#transformBytes}),
+ * encrypt the bytes, and write the Base58 token straight into the batch's output
+ * buffer ({@link SecureStringConverter#convert(byte[], int, int, byte[], int)}).
+ * The writer then copies those buffers to the file. So there is no charset
+ * decode on input, no encode before AES, and no {@code String} round trip for
+ * the token.
+ * <p>
+ * Output is the same as {@link GeneratorPipeline} for valid UTF-8 input, with
+ * the same ordering, bounded queue and optional round-trip verification. Lines
+ * end at {@code '\n'}, and a trailing {@code '\r'} is dropped. A lone
+ * {@code '\r'} is not a line break here, and malformed UTF-8 is carried through
+ * instead of rejected.
+ */
+public class ByteGeneratorPipeline {
+    private static final int DEFAULT_BATCH_SIZE = 256;
+    private static final int READ_BUFFER_SIZE = 1 << 16;
+    private static final int MAX_REPORTED_MISMATCHES = 1000;
+    private static final byte[] NEW_LINE = System.lineSeparator().getBytes(StandardCharsets.US_ASCII);
+
+    // Marks the end of input in the pending queue
+    private static final Future<Batch> END = CompletableFuture.completedFuture(null);
+
+    private final SecureStringConverter converter;
+    private final int workers;
+    private final int batchSize;
+
+    public ByteGeneratorPipeline(SecureStringConverter converter) {
+        this(converter, Runtime.getRuntime().availableProcessors(), DEFAULT_BATCH_SIZE);
+    }
+
+    public ByteGeneratorPipeline(SecureStringConverter converter, int workers, int batchSize) {
+        if (workers < 1 || batchSize < 1) {
+            throw new IllegalArgumentException("workers and batchSize must be positive");
+        }
+        this.converter = converter;
+        this.workers = workers;
+        this.batchSize = batchSize;
+    }
+
+    // Growable output buffer of one batch
+    private static final class Bytes {
+        byte[] data;
+        int size;
+
+        Bytes(int capacity) {
+            data = new byte[capacity];
+        }
+
+        // Room for n more bytes at data[size]
+        byte[] reserve(int n) {
+            if (data.length - size < n) {
+                data = Arrays.copyOf(data, Math.max(data.length * 2, size + n));
+            }
+            return data;
+        }
+
+        void newLine() {
+            System.arraycopy(NEW_LINE, 0, reserve(NEW_LINE.length), size, NEW_LINE.length);
+            size += NEW_LINE.length;
+        }
+    }
+
+    // Input lines of a batch: line i is data[i == 0 ? 0 : ends[i - 1] + 1, ends[i])
+    private static final class Lines {
+        final byte[] data;
+        final int[] ends;
+        final int count;
+
+        Lines(byte[] data, int[] ends, int count) {
+            this.data = data;
+            this.ends = ends;
+            this.count = count;
+        }
+    }
+
+    private static final class Batch {
+        final Bytes tokens;
+        final Bytes reverted;
+        final List<Long> mismatchLines = new ArrayList<>();
+        int lines;
+        int verified;
+
+        Batch(Bytes tokens, Bytes reverted) {
+            this.tokens = tokens;
+            this.reverted = reverted;
+        }
+    }
+
+    /**
+     * Convert every line of {@code input} and write the results to {@code output}.
+     *
+     * @return number of lines written
+     */
+    public long run(Path input, Path output) throws Exception {
+        return run(input, output, 0, null).lines();
+    }
+
+    /**
+     * Same as {@link GeneratorPipeline#run(Path, Path, int, Path)}, on bytes
+     *
+     * @param verifyEvery    verify every n-th line (1 = every line, 0 = none)
+     * @param revertedOutput receives the reverted, de-transformed lines; only allowed with {@code verifyEvery == 1}
+     */
+    public GeneratorPipeline.Result run(Path input, Path output, int verifyEvery, Path revertedOutput) throws Exception {
+        if (verifyEvery < 0) {
+            throw new IllegalArgumentException("verifyEvery must not be negative");
+        }
+        if (revertedOutput != null && verifyEvery != 1) {
+            throw new IllegalArgumentException("revertedOutput needs every line to be verified");
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        BlockingQueue<Future<Batch>> pending = new ArrayBlockingQueue<>(workers * 2);
+
+        Thread reader = new Thread(() -> readBatches(input, pool, pending, verifyEvery, revertedOutput != null),
+                "generator-reader");
+        reader.start();
+
+        long written = 0;
+        long verified = 0;
+        long mismatches = 0;
+        List<Long> mismatchLines = new ArrayList<>();
+        OutputStream revertedOut = null;
+        try (OutputStream out = Files.newOutputStream(output)) {
+            if (revertedOutput != null) {
+                revertedOut = Files.newOutputStream(revertedOutput);
+            }
+            Future<Batch> next;
+            while ((next = pending.take()) != END) {
+                Batch batch = next.get();
+                long t = Metrics.start();
+                out.write(batch.tokens.data, 0, batch.tokens.size);
+                if (revertedOut != null) {
+                    revertedOut.write(batch.reverted.data, 0, batch.reverted.size);
+                }
+                Metrics.stop(Metrics.Stage.WRITE, t);
+                written += batch.lines;
+                verified += batch.verified;
+                mismatches += batch.mismatchLines.size();
+                for (Long line : batch.mismatchLines) {
+                    if (mismatchLines.size() < MAX_REPORTED_MISMATCHES) {
+                        mismatchLines.add(line);
+                    }
+                }
+            }
+        } catch (ExecutionException e) {
+            reader.interrupt();
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        } catch (Exception e) {
+            reader.interrupt();
+            throw e;
+        } finally {
+            if (revertedOut != null) {
+                revertedOut.close();
+            }
+            pool.shutdownNow();
+        }
+        reader.join();
+        return new GeneratorPipeline.Result(written, verified, mismatches, mismatchLines);
+    }
+
+    private void readBatches(Path input, ExecutorService pool, BlockingQueue<Future<Batch>> pending,
+                             int verifyEvery, boolean keepReverted) {
+        try (InputStream in = Files.newInputStream(input)) {
+            byte[] buffer = new byte[READ_BUFFER_SIZE];
+            int start = 0;
+            int limit = 0;
+            // Where to continue looking for the next '\n'
+            int scan = 0;
+            int[] ends = new int[batchSize];
+            int count = 0;
+            long firstLine = 1;
+            boolean eof = false;
+            long t = Metrics.start();
+            while (true) {
+                while (count < batchSize && scan < limit) {
+                    int newline = scan;
+                    while (newline < limit && buffer[newline] != '\n') {
+                        newline++;
+                    }
+                    if (newline == limit) {
+                        scan = limit;
+                        break;
+                    }
+                    ends[count++] = newline;
+                    scan = newline + 1;
+                }
+                if (count == batchSize || (eof && count > 0)) {
+                    Metrics.stop(Metrics.Stage.READ, t);
+                    int end = ends[count - 1] + 1;
+                    pending.put(submit(pool, cut(buffer, start, end, ends, count), firstLine, verifyEvery, keepReverted));
+                    firstLine += count;
+                    start = end;
+                    scan = end;
+                    count = 0;
+                    t = Metrics.start();
+                    continue;
+                }
+                if (eof) {
+                    Metrics.stop(Metrics.Stage.READ, t);
+                    if (start < limit) {
+                        // Last line without a terminator
+                        int[] last = {limit};
+                        pending.put(submit(pool, cut(buffer, start, limit, last, 1), firstLine, verifyEvery, keepReverted));
+                    }
+                    break;
+                }
+                // Need more input: move the unconsumed tail to the front, grow if a single batch fills the buffer
+                if (start > 0) {
+                    System.arraycopy(buffer, start, buffer, 0, limit - start);
+                    for (int i = 0; i < count; i++) {
+                        ends[i] -= start;
+                    }
+                    limit -= start;
+                    scan -= start;
+                    start = 0;
+                }
+                if (limit == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                }
+                int n = in.read(buffer, limit, buffer.length - limit);
+                if (n < 0) {
+                    eof = true;
+                } else {
+                    limit += n;
+                }
+            }
+            pending.put(END);
+        } catch (InterruptedException e) {
+            // The writer gave up; nothing left to hand over
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            // Surface the failure to the writer through the queue
+            try {
+                pending.put(CompletableFuture.failedFuture(e));
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    // Copy buffer[start, end) out for a worker; line ends become relative to the copy
+    private static Lines cut(byte[] buffer, int start, int end, int[] ends, int count) {
+        int[] relative = new int[count];
+        for (int i = 0; i < count; i++) {
+            relative[i] = ends[i] - start;
+        }
+        return new Lines(Arrays.copyOfRange(buffer, start, end), relative, count);
+    }
+
+    private Future<Batch> submit(ExecutorService pool, Lines lines, long firstLine,
+                                 int verifyEvery, boolean keepReverted) {
+        return pool.submit(() -> {
+            int size = lines.data.length;
+            Batch batch = new Batch(new Bytes(size * 2 + 128 * lines.count),
+                    keepReverted ? new Bytes(size + NEW_LINE.length * lines.count) : null);
+            byte[] transformed = new byte[256];
+            byte[] opened = new byte[256];
+            int from = 0;
+            for (int i = 0; i < lines.count; i++) {
+                int end = lines.ends[i];
+                int to = end > from && lines.data[end - 1] == '\r' ? end - 1 : end;
+                int length = to - from;
+
+                if (transformed.length < StringHandler.maxTransformedLength(length)) {
+                    transformed = new byte[StringHandler.maxTransformedLength(length) * 2];
+                }
+                int transformedLength = StringHandler.transformBytes(lines.data, from, length, transformed, 0);
+                Bytes tokens = batch.tokens;
+                int tokenStart = tokens.size;
+                byte[] dst = tokens.reserve(SecureStringConverter.maxTokenLength(transformedLength));
+                tokens.size += converter.convert(transformed, 0, transformedLength, dst, tokenStart);
+                int tokenLength = tokens.size - tokenStart;
+
+                long lineNumber = firstLine + i;
+                if (verifyEvery > 0 && (lineNumber - 1) % verifyEvery == 0) {
+                    batch.verified++;
+                    if (opened.length < transformedLength) {
+                        opened = new byte[transformedLength * 2];
+                    }
+                    int openedLength = revertQuietly(tokens.data, tokenStart, tokenLength, opened);
+                    boolean match = Arrays.equals(transformed, 0, transformedLength, opened, 0, Math.max(openedLength, 0));
+                    if (!match) {
+                        batch.mismatchLines.add(lineNumber);
+                    }
+                    if (batch.reverted != null) {
+                        if (openedLength > 0) {
+                            Bytes reverted = batch.reverted;
+                            byte[] out = reverted.reserve(openedLength);
+                            reverted.size += StringHandler.reverseBytes(opened, 0, openedLength, out, reverted.size);
+                        }
+                        batch.reverted.newLine();
+                    }
+                }
+                tokens.newLine();
+                batch.lines++;
+                from = end + 1;
+            }
+            return batch;
+        });
+    }
+
+    // -1 when the token does not decrypt at all, which counts as a mismatch
+    private int revertQuietly(byte[] token, int off, int len, byte[] dst) {
+        try {
+            return converter.revert(token, off, len, dst, 0);
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+}
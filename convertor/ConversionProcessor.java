@@ -0,0 +1,498 @@
+package convertor;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link Flow.Processor} that runs a conversion over a reactive stream with bounded memory.
+ * <p>
+ * Items are collected into batches of up to {@code batchSize} and converted on
+ * the given executor, at most {@code parallelism} batches at a time. A batch is
+ * also dispatched early when nothing else is in flight, so a slow source is not
+ * held back waiting for a full batch. The processor never requests more from
+ * upstream than {@code batchSize * parallelism} items beyond what the
+ * subscriber has taken, so a fast producer is throttled by the slowest of the
+ * workers and the subscriber instead of filling the heap.
+ * <p>
+ * Every input produces exactly one {@link Result}; a failing item becomes a
+ * failed result and the stream goes on. Only an upstream error ends the stream
+ * with {@code onError}, after the results already converted have been delivered.
+ * A non-positive {@code request(n)} is signalled with {@code onError} right away,
+ * dropping buffered results, as Reactive Streams §3.9 requires.
+ * With {@code ordered} results keep the input order, otherwise batches are
+ * emitted as they finish. One subscriber is supported.
+ */
+public final class ConversionProcessor<I, O> implements Flow.Processor<I, ConversionProcessor.Result<I, O>> {
+
+    /**
+     * Converts one item
+     */
+    public interface Conversion<I, O> {
+        O apply(I input) throws Exception;
+    }
+
+    /**
+     * Outcome for one input: either a value or the error the conversion threw
+     */
+    public static final class Result<I, O> {
+        private final I input;
+        private final O value;
+        private final Exception error;
+
+        private Result(I input, O value, Exception error) {
+            this.input = input;
+            this.value = value;
+            this.error = error;
+        }
+
+        public I input() {
+            return input;
+        }
+
+        public O value() {
+            return value;
+        }
+
+        public Exception error() {
+            return error;
+        }
+
+        public boolean isSuccess() {
+            return error == null;
+        }
+
+        @Override
+        public String toString() {
+            return isSuccess() ? String.valueOf(value) : "failed(" + error + ")";
+        }
+    }
+
+    private final Conversion<I, O> conversion;
+    private final ExecutorService executor;
+    private final int batchSize;
+    private final int parallelism;
+    private final boolean ordered;
+    private final int capacity;
+
+    // Serializes the drain loop, which is the only place that signals downstream
+    private final AtomicInteger wip = new AtomicInteger();
+    private final AtomicLong demand = new AtomicLong();
+
+    // Guarded by this
+    private Flow.Subscription upstream;
+    private Flow.Subscriber<? super Result<I, O>> downstream;
+    private final ArrayDeque<I> pending = new ArrayDeque<>();
+    private final Map<Long, List<Result<I, O>>> finished = new HashMap<>();
+    private final ArrayDeque<Result<I, O>> ready = new ArrayDeque<>();
+    private long nextBatch;
+    private long nextToEmit;
+    private int inFlight;
+    // Items held anywhere in the processor plus items requested but not yet received
+    private long held;
+    private long requested;
+    private boolean upstreamDone;
+    private Throwable upstreamError;
+    private boolean cancelled;
+    private boolean terminated;
+    // Subscriber broke the protocol (§3.9): signalled at once, ahead of buffered results and demand
+    private Throwable violation;
+
+    /**
+     * @param batchSize   items per conversion task
+     * @param parallelism batches converted at the same time
+     * @param ordered     emit results in input order
+     */
+    public ConversionProcessor(Conversion<I, O> conversion, ExecutorService executor,
+                               int batchSize, int parallelism, boolean ordered) {
+        if (batchSize < 1 || parallelism < 1) {
+            throw new IllegalArgumentException("batchSize and parallelism must be positive");
+        }
+        this.conversion = conversion;
+        this.executor = executor;
+        this.batchSize = batchSize;
+        this.parallelism = parallelism;
+        this.ordered = ordered;
+        this.capacity = batchSize * parallelism;
+    }
+
+    public static ConversionProcessor<String, String> converting(SecureStringConverter converter, ExecutorService executor,
+                                                                 int batchSize, int parallelism, boolean ordered) {
+        return new ConversionProcessor<>(converter::convert, executor, batchSize, parallelism, ordered);
+    }
+
+    public static ConversionProcessor<String, String> reverting(SecureStringConverter converter, ExecutorService executor,
+                                                                int batchSize, int parallelism, boolean ordered) {
+        return new ConversionProcessor<>(converter::revert, executor, batchSize, parallelism, ordered);
+    }
+
+    public static ConversionProcessor<String, String> encrypting(StringCipher cipher, ExecutorService executor,
+                                                                 int batchSize, int parallelism, boolean ordered) {
+        return new ConversionProcessor<>(cipher::encrypt, executor, batchSize, parallelism, ordered);
+    }
+
+    public static ConversionProcessor<String, String> decrypting(StringCipher cipher, ExecutorService executor,
+                                                                 int batchSize, int parallelism, boolean ordered) {
+        return new ConversionProcessor<>(cipher::decrypt, executor, batchSize, parallelism, ordered);
+    }
+
+    public static ConversionProcessor<String, UUID> toUUID(StringUUIDConverter converter, ExecutorService executor,
+                                                           int batchSize, int parallelism, boolean ordered) {
+        return new ConversionProcessor<>(converter::convertToUUID, executor, batchSize, parallelism, ordered);
+    }
+
+    public static ConversionProcessor<UUID, String> fromUUID(StringUUIDConverter converter, ExecutorService executor,
+                                                             int batchSize, int parallelism, boolean ordered) {
+        return new ConversionProcessor<>(converter::convertFromUUID, executor, batchSize, parallelism, ordered);
+    }
+
+    // ---- upstream side ----
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        synchronized (this) {
+            if (upstream != null || cancelled) {
+                subscription.cancel();
+                return;
+            }
+            upstream = subscription;
+        }
+        drain();
+    }
+
+    @Override
+    public void onNext(I item) {
+        synchronized (this) {
+            if (cancelled || violation != null) {
+                return;
+            }
+            pending.add(item);
+            requested--;
+            held++;
+        }
+        drain();
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        synchronized (this) {
+            upstreamError = throwable;
+            upstreamDone = true;
+        }
+        drain();
+    }
+
+    @Override
+    public void onComplete() {
+        synchronized (this) {
+            upstreamDone = true;
+        }
+        drain();
+    }
+
+    // ---- downstream side ----
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super Result<I, O>> subscriber) {
+        boolean accepted;
+        synchronized (this) {
+            accepted = downstream == null;
+            if (accepted) {
+                downstream = subscriber;
+            }
+        }
+        if (!accepted) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                }
+
+                @Override
+                public void cancel() {
+                }
+            });
+            subscriber.onError(new IllegalStateException("ConversionProcessor supports a single subscriber"));
+            return;
+        }
+        subscriber.onSubscribe(new Flow.Subscription() {
+            @Override
+            public void request(long n) {
+                if (n <= 0) {
+                    fail(new IllegalArgumentException("Non-positive request: " + n));
+                    return;
+                }
+                demand.getAndAccumulate(n, (current, add) -> current + add < 0 ? Long.MAX_VALUE : current + add);
+                drain();
+            }
+
+            @Override
+            public void cancel() {
+                Flow.Subscription up;
+                synchronized (ConversionProcessor.this) {
+                    cancelled = true;
+                    up = upstream;
+                    pending.clear();
+                    ready.clear();
+                    finished.clear();
+                }
+                if (up != null) {
+                    up.cancel();
+                }
+            }
+        });
+        drain();
+    }
+
+    private void fail(Throwable error) {
+        Flow.Subscription up;
+        synchronized (this) {
+            if (violation == null) {
+                violation = error;
+            }
+            upstreamDone = true;
+            up = upstream;
+            pending.clear();
+            ready.clear();
+            finished.clear();
+        }
+        if (up != null) {
+            up.cancel();
+        }
+        drain();
+    }
+
+    // ---- conversion ----
+
+    private void runBatch(long sequence, List<I> batch) {
+        List<Result<I, O>> results = new ArrayList<>(batch.size());
+        for (I input : batch) {
+            try {
+                results.add(new Result<>(input, conversion.apply(input), null));
+            } catch (Exception e) {
+                results.add(new Result<>(input, null, e));
+            }
+        }
+        finish(sequence, results);
+    }
+
+    private void finish(long sequence, List<Result<I, O>> results) {
+        synchronized (this) {
+            inFlight--;
+            if (!cancelled && violation == null) {
+                if (ordered) {
+                    finished.put(sequence, results);
+                } else {
+                    ready.addAll(results);
+                }
+            }
+        }
+        drain();
+    }
+
+    /**
+     * Dispatch batches, emit results within demand, top up upstream demand and
+     * signal termination. Runs on one thread at a time; others just mark it missed.
+     */
+    private void drain() {
+        if (wip.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        do {
+            dispatch();
+            emit();
+            requestMore();
+            missed = wip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    private void dispatch() {
+        while (true) {
+            long sequence;
+            List<I> batch;
+            synchronized (this) {
+                boolean full = pending.size() >= batchSize;
+                // A partial batch goes out when nothing else is running or no more input will come
+                boolean flush = !pending.isEmpty() && (inFlight == 0 || upstreamDone);
+                if (cancelled || violation != null || inFlight >= parallelism || !(full || flush)) {
+                    return;
+                }
+                batch = new ArrayList<>(Math.min(batchSize, pending.size()));
+                while (batch.size() < batchSize && !pending.isEmpty()) {
+                    batch.add(pending.poll());
+                }
+                sequence = nextBatch++;
+                inFlight++;
+            }
+            try {
+                executor.execute(() -> runBatch(sequence, batch));
+            } catch (RejectedExecutionException e) {
+                List<Result<I, O>> failed = new ArrayList<>(batch.size());
+                for (I input : batch) {
+                    failed.add(new Result<>(input, null, e));
+                }
+                finish(sequence, failed);
+            }
+        }
+    }
+
+    private void emit() {
+        while (true) {
+            Flow.Subscriber<? super Result<I, O>> subscriber;
+            Result<I, O> next = null;
+            boolean complete = false;
+            Throwable error = null;
+            synchronized (this) {
+                subscriber = downstream;
+                if (subscriber == null || cancelled || terminated) {
+                    return;
+                }
+                if (ordered) {
+                    List<Result<I, O>> batch;
+                    while ((batch = finished.remove(nextToEmit)) != null) {
+                        ready.addAll(batch);
+                        nextToEmit++;
+                    }
+                }
+                if (violation != null) {
+                    // Regardless of demand and of results still buffered
+                    terminated = true;
+                    error = violation;
+                } else if (!ready.isEmpty()) {
+                    if (demand.get() == 0) {
+                        return;
+                    }
+                    next = ready.poll();
+                    held--;
+                } else if (upstreamDone && pending.isEmpty() && inFlight == 0 && finished.isEmpty()) {
+                    terminated = true;
+                    complete = upstreamError == null;
+                    error = upstreamError;
+                } else {
+                    return;
+                }
+            }
+            if (next != null) {
+                demand.decrementAndGet();
+                subscriber.onNext(next);
+            } else if (complete) {
+                subscriber.onComplete();
+                return;
+            } else {
+                subscriber.onError(error);
+                return;
+            }
+        }
+    }
+
+    private void requestMore() {
+        Flow.Subscription up;
+        long more;
+        synchronized (this) {
+            up = upstream;
+            more = capacity - held - requested;
+            if (up == null || upstreamDone || cancelled || more <= 0) {
+                return;
+            }
+            requested += more;
+        }
+        up.request(more);
+    }
+
+    // A fast publisher feeding 10 000 records through the processors with a subscriber taking 64 at a time
+    public static void main(String[] args) throws Exception {
+        ExecutorService workers = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        try {
+            StringCipher cipher = new StringCipher("flow_password");
+            ConversionProcessor<String, String> encrypt = encrypting(cipher, workers, 64, 4, true);
+            ConversionProcessor<String, String> decrypt = decrypting(cipher, workers, 64, 4, false);
+
+            CountDownLatch done = new CountDownLatch(1);
+            AtomicLong ok = new AtomicLong();
+            AtomicLong failed = new AtomicLong();
+            try (SubmissionPublisher<String> source = new SubmissionPublisher<>(workers, 256)) {
+                source.subscribe(encrypt);
+                // Hand the encrypted text on as plain strings, corrupting every 1000th record
+                encrypt.subscribe(new Relay(decrypt));
+                decrypt.subscribe(new Flow.Subscriber<>() {
+                    private Flow.Subscription subscription;
+                    private int received;
+
+                    @Override
+                    public void onSubscribe(Flow.Subscription subscription) {
+                        this.subscription = subscription;
+                        subscription.request(64);
+                    }
+
+                    @Override
+                    public void onNext(Result<String, String> item) {
+                        (item.isSuccess() ? ok : failed).incrementAndGet();
+                        if (++received % 64 == 0) {
+                            subscription.request(64);
+                        }
+                    }
+
+                    @Override
+                    public void onError(Throwable throwable) {
+                        throwable.printStackTrace();
+                        done.countDown();
+                    }
+
+                    @Override
+                    public void onComplete() {
+                        done.countDown();
+                    }
+                });
+                for (int i = 0; i < 10_000; i++) {
+                    source.submit("record-" + i);
+                }
+            }
+            done.await();
+            System.out.println("decrypted: " + ok.get() + ", failed per item: " + failed.get());
+        } finally {
+            workers.shutdown();
+        }
+    }
+
+    // Passes encrypted values downstream as input for the next stage, one-for-one with its own demand
+    private static final class Relay implements Flow.Subscriber<Result<String, String>> {
+        private final ConversionProcessor<String, String> next;
+        private int count;
+
+        Relay(ConversionProcessor<String, String> next) {
+            this.next = next;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            next.onSubscribe(subscription);
+        }
+
+        @Override
+        public void onNext(Result<String, String> item) {
+            String value = item.value();
+            next.onNext(++count % 1000 == 0 ? "zz" + value : value);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            next.onError(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            next.onComplete();
+        }
+    }
+}
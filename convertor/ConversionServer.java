@@ -0,0 +1,222 @@
+package convertor;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import javax.crypto.AEADBadTagException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Local HTTP conversion service bound to the loopback interface.
+ * <p>
+ * Endpoints (request and response bodies are UTF-8 text):
+ * <ul>
+ *     <li>{@code POST /convert} - {@link SecureStringConverter#convert(String)}</li>
+ *     <li>{@code POST /revert} - {@link SecureStringConverter#revert(String)}</li>
+ *     <li>{@code POST /uuid} - {@link StringUUIDConverter#convertToUUID(String)}</li>
+ * </ul>
+ * Each exchange runs on a virtual thread when the JVM supports them (Java 21+),
+ * otherwise on a bounded platform thread pool. Concurrent convert/revert calls
+ * are coalesced into micro-batches: a convert batch shares one salt and derived
+ * key, and a revert batch is grouped by salt, so each distinct key is derived
+ * once and distinct salts are reverted in parallel on the batch workers.
+ * <p>
+ * Only a few batches per endpoint run at once; when the request queue behind
+ * them is full, new calls are answered with 503.
+ * <p>
+ * Malformed or tampered input is answered with 400, server-side failures with 500.
+ */
+public class ConversionServer implements AutoCloseable {
+    private static final int MAX_BATCH = 64;
+    private static final long MAX_BATCH_DELAY_MICROS = 500;
+    private static final int QUEUE_CAPACITY = 10_000;
+    private static final int MAX_BODY_BYTES = 1 << 20;
+    private static final int MAX_CONNECTION_THREADS = 256;
+
+    private final HttpServer server;
+    private final ExecutorService connections;
+    private final ExecutorService batchWorkers;
+    private final MicroBatcher<String, String> converts;
+    private final MicroBatcher<String, String> reverts;
+    private final StringUUIDConverter uuidConverter;
+
+    public ConversionServer(String password, int port) throws IOException {
+        SecureStringConverter converter = new SecureStringConverter(password);
+        this.uuidConverter = new StringUUIDConverter(password);
+        int workers = Runtime.getRuntime().availableProcessors();
+        this.batchWorkers = Executors.newFixedThreadPool(workers);
+        // Each batcher keeps at most one batch per worker in flight, so overload backs up into
+        // the bounded request queues (503) instead of the pool's task queue
+        this.converts = new MicroBatcher<>("convert", MAX_BATCH, MAX_BATCH_DELAY_MICROS, TimeUnit.MICROSECONDS,
+                QUEUE_CAPACITY, workers, batchWorkers, converter::convertAll);
+        this.reverts = new MicroBatcher<>("revert", MAX_BATCH, MAX_BATCH_DELAY_MICROS, TimeUnit.MICROSECONDS,
+                QUEUE_CAPACITY, workers, batchWorkers, batch -> converter.revertAll(batch, batchWorkers));
+
+        this.connections = newConnectionExecutor();
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.setExecutor(connections);
+        server.createContext("/convert", exchange -> handle(exchange, body -> await(converts.submit(body))));
+        server.createContext("/revert", exchange -> handle(exchange, body -> await(reverts.submit(body))));
+        server.createContext("/uuid", exchange -> handle(exchange, body -> uuidConverter.convertToUUID(body).toString()));
+    }
+
+    /**
+     * One virtual thread per task on Java 21+, otherwise a cached pool of at most
+     * {@code MAX_CONNECTION_THREADS} platform threads. When those are all busy the
+     * HTTP dispatcher runs the exchange itself and stops accepting until it is done.
+     */
+    static ExecutorService newConnectionExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            return new ThreadPoolExecutor(0, MAX_CONNECTION_THREADS, 60, TimeUnit.SECONDS,
+                    new SynchronousQueue<>(), new ThreadPoolExecutor.CallerRunsPolicy());
+        }
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Bound port (useful when the server was created with port 0)
+     */
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        converts.close();
+        reverts.close();
+        batchWorkers.shutdown();
+        connections.shutdown();
+    }
+
+    private interface Operation {
+        String apply(String body) throws Exception;
+    }
+
+    private void handle(HttpExchange exchange, Operation operation) throws IOException {
+        try (exchange) {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                respond(exchange, 405, "Use POST");
+                return;
+            }
+            byte[] body = exchange.getRequestBody().readNBytes(MAX_BODY_BYTES + 1);
+            if (body.length > MAX_BODY_BYTES) {
+                respond(exchange, 413, "Request body too large");
+                return;
+            }
+            String result;
+            try {
+                result = operation.apply(new String(body, StandardCharsets.UTF_8));
+            } catch (RejectedExecutionException e) {
+                respond(exchange, 503, "Server busy");
+                return;
+            } catch (Exception e) {
+                if (isBadInput(e)) {
+                    respond(exchange, 400, String.valueOf(e.getMessage()));
+                } else {
+                    e.printStackTrace();
+                    respond(exchange, 500, "Internal server error");
+                }
+                return;
+            }
+            respond(exchange, 200, result);
+        }
+    }
+
+    // Failures caused by the request body: bad Base58, truncated or tampered tokens
+    private static boolean isBadInput(Exception e) {
+        return e instanceof IllegalArgumentException || e instanceof AEADBadTagException;
+    }
+
+    private static void respond(HttpExchange exchange, int status, String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static String await(CompletableFuture<String> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        }
+    }
+
+    // Usage: ConversionServer [port]     serve on 127.0.0.1 with the password from salt.txt
+    //        ConversionServer demo       start on a free loopback port and round-trip a few requests
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && "demo".equals(args[0])) {
+            demo();
+            return;
+        }
+        String password = FileStringReader.readSmallFile("salt.txt");
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8089;
+        ConversionServer server = new ConversionServer(password, port);
+        server.start();
+        System.out.println("Listening on 127.0.0.1:" + server.port());
+    }
+
+    private static void demo() throws Exception {
+        try (ConversionServer server = new ConversionServer("demo_password", 0)) {
+            server.start();
+            HttpClient client = HttpClient.newHttpClient();
+            String base = "http://127.0.0.1:" + server.port();
+
+            List<CompletableFuture<String>> roundTrips = new ArrayList<>();
+            for (int i = 0; i < 32; i++) {
+                String original = "record-" + i;
+                roundTrips.add(post(client, base + "/convert", original)
+                        .thenCompose(token -> post(client, base + "/revert", token))
+                        .thenApply(reverted -> original.equals(reverted) ? "ok" : "MISMATCH " + original));
+            }
+            long ok = roundTrips.stream().map(CompletableFuture::join).filter("ok"::equals).count();
+            System.out.println("convert/revert round trips ok: " + ok + "/" + roundTrips.size());
+
+            // A token that is not Base58 is the caller's fault: 400, not 500
+            HttpResponse<String> bad = client.send(HttpRequest.newBuilder(URI.create(base + "/revert"))
+                    .POST(HttpRequest.BodyPublishers.ofString("not a token", StandardCharsets.UTF_8))
+                    .build(), HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+            System.out.println("invalid token: " + bad.statusCode() + " " + bad.body());
+
+            String uuid = post(client, base + "/uuid", "Hello, World!").join();
+            System.out.println("uuid: " + UUID.fromString(uuid));
+        }
+    }
+
+    private static CompletableFuture<String> post(HttpClient client, String url, String body) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .POST(HttpRequest.BodyPublishers.ofString(body, StandardCharsets.UTF_8))
+                .build();
+        return client.sendAsync(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8))
+                .thenApply(HttpResponse::body);
+    }
+}
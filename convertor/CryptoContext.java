@@ -0,0 +1,109 @@
+package convertor;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKeyFactory;
+import java.security.GeneralSecurityException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Per-thread crypto objects for the AES paths.
+ * <p>
+ * {@code Cipher} and {@code SecretKeyFactory} are not thread-safe but are
+ * expensive to look up, so each thread keeps its own pair and callers only pay
+ * for {@code init} + {@code doFinal}. Random bytes come from {@link RandomSource}.
+ */
+public final class CryptoContext {
+    private static final ThreadLocal<CryptoContext> CONTEXT = ThreadLocal.withInitial(CryptoContext::create);
+
+    private final Cipher gcmCipher;
+    private final SecretKeyFactory pbkdf2Factory;
+
+    private CryptoContext(Cipher gcmCipher, SecretKeyFactory pbkdf2Factory) {
+        this.gcmCipher = gcmCipher;
+        this.pbkdf2Factory = pbkdf2Factory;
+    }
+
+    private static CryptoContext create() {
+        try {
+            return new CryptoContext(
+                    Cipher.getInstance("AES/GCM/NoPadding"),
+                    SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256"));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("AES/GCM or PBKDF2WithHmacSHA256 not available", e);
+        }
+    }
+
+    /**
+     * Context bound to the calling thread
+     */
+    public static CryptoContext get() {
+        return CONTEXT.get();
+    }
+
+    /**
+     * AES/GCM/NoPadding cipher; callers must {@code init} it before each use
+     */
+    public Cipher gcmCipher() {
+        return gcmCipher;
+    }
+
+    public SecretKeyFactory pbkdf2Factory() {
+        return pbkdf2Factory;
+    }
+
+    /**
+     * Salts and IVs from the thread's buffered {@link RandomSource}
+     */
+    public byte[] randomBytes(int length) {
+        return RandomSource.secure().bytes(length);
+    }
+
+    private interface Operation {
+        void run(int i) throws Exception;
+    }
+
+    // Throughput of the public AES paths with 1..N threads; ops/s should grow linearly with threads
+    public static void main(String[] args) throws Exception {
+        SecureStringConverter converter = new SecureStringConverter("context_demo_password");
+        // One batch shares a salt, so reverting it measures per-thread Cipher use, not PBKDF2
+        List<String> tokens = converter.convertAll(Collections.nCopies(1_000, "x".repeat(256)));
+        ImprovedAESUtils.PreparedKey prepared = ImprovedAESUtils.prepare("context_demo_password");
+        int maxThreads = Runtime.getRuntime().availableProcessors();
+
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            System.out.printf("%2d threads: revert %,.0f ops/s, prepared encrypt %,.0f ops/s, convert %,.1f ops/s%n",
+                    threads,
+                    opsPerSecond(threads, 20_000, i -> converter.revert(tokens.get(i % tokens.size()))),
+                    opsPerSecond(threads, 20_000, i -> prepared.encrypt("record-" + i)),
+                    // A fresh salt per call: one PBKDF2 derivation on the thread's own SecretKeyFactory
+                    opsPerSecond(threads, 10, i -> converter.convert("record-" + i)));
+        }
+    }
+
+    private static double opsPerSecond(int threads, int opsPerThread, Operation operation) throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch done = new CountDownLatch(threads);
+        long startTime = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            pool.execute(() -> {
+                try {
+                    for (int i = 0; i < opsPerThread; i++) {
+                        operation.run(i);
+                    }
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        double seconds = (System.nanoTime() - startTime) / 1_000_000_000.0;
+        pool.shutdown();
+        return threads * opsPerThread / seconds;
+    }
+}
@@ -0,0 +1,151 @@
+package convertor;
+
+import javax.crypto.SecretKey;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded, thread-safe cache of derived keys keyed by (password, salt).
+ * <p>
+ * Entries expire after a fixed time-to-live and the oldest entries are evicted
+ * first once the cache is full. Expired entries are also purged on every insert,
+ * not only when they are looked up again.
+ */
+public class DerivedKeyCache {
+
+    /**
+     * Derives the key on a cache miss
+     */
+    public interface KeyDeriver {
+        SecretKey derive(String password, byte[] salt) throws Exception;
+    }
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final Map<CacheKey, Entry> entries = new ConcurrentHashMap<>();
+    // Entries in insertion order, used to pick eviction victims. An element whose key now maps to
+    // another entry (or none) is stale; removals are conditional on the entry, so it never evicts a newer one.
+    private final Queue<Entry> order = new ConcurrentLinkedQueue<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public DerivedKeyCache(int maxEntries, long ttl, TimeUnit unit) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("maxEntries must be positive");
+        }
+        this.maxEntries = maxEntries;
+        this.ttlNanos = unit.toNanos(ttl);
+    }
+
+    /**
+     * Return the cached key for (password, salt), deriving it on a miss
+     */
+    public SecretKey get(String password, byte[] salt, KeyDeriver deriver) throws Exception {
+        CacheKey cacheKey = new CacheKey(password, salt);
+        long now = System.nanoTime();
+        Entry entry = entries.get(cacheKey);
+        if (entry != null) {
+            if (!entry.isExpired(now, ttlNanos)) {
+                hits.increment();
+                return entry.key;
+            }
+            // Its queue element turns stale and is dropped by the next purge
+            entries.remove(cacheKey, entry);
+        }
+        misses.increment();
+
+        SecretKey key = deriver.derive(password, salt);
+        Entry fresh = new Entry(cacheKey, key, now);
+        entries.put(cacheKey, fresh);
+        order.add(fresh);
+        purge(now);
+        return key;
+    }
+
+    /**
+     * Drop expired or stale entries from the head of the queue, then evict the oldest while over capacity
+     */
+    private void purge(long now) {
+        Entry head;
+        while ((head = order.peek()) != null
+                && (head.isExpired(now, ttlNanos) || entries.get(head.cacheKey) != head)) {
+            if (order.remove(head)) {
+                entries.remove(head.cacheKey, head);
+            }
+        }
+        while (entries.size() > maxEntries) {
+            Entry victim = order.poll();
+            if (victim == null) {
+                return;
+            }
+            entries.remove(victim.cacheKey, victim);
+        }
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public void invalidateAll() {
+        entries.clear();
+        order.clear();
+    }
+
+    private static final class Entry {
+        final CacheKey cacheKey;
+        final SecretKey key;
+        final long createdAt;
+
+        Entry(CacheKey cacheKey, SecretKey key, long createdAt) {
+            this.cacheKey = cacheKey;
+            this.key = key;
+            this.createdAt = createdAt;
+        }
+
+        boolean isExpired(long now, long ttlNanos) {
+            return now - createdAt >= ttlNanos;
+        }
+    }
+
+    private static final class CacheKey {
+        final String password;
+        final byte[] salt;
+        final int hash;
+
+        CacheKey(String password, byte[] salt) {
+            this.password = password;
+            this.salt = salt.clone();
+            this.hash = 31 * password.hashCode() + Arrays.hashCode(salt);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof CacheKey)) {
+                return false;
+            }
+            CacheKey other = (CacheKey) o;
+            return hash == other.hash && password.equals(other.password) && Arrays.equals(salt, other.salt);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -73,6 +73,13 @@ public class FileStringReader {
         return Files.readAllLines(Paths.get(filePath), StandardCharsets.UTF_8);
     }
 
+    /**
+     * Open a memory-mapped line reader; lines are views over the file, nothing is loaded onto the heap
+     */
+    public static MappedLineReader mapLines(String filePath) throws IOException {
+        return MappedLineReader.open(Paths.get(filePath));
+    }
+
     public static void main(String[] args) {
         // Example file path - adjust according to your system
         String filePath = "salt.txt";
@@ -123,11 +130,20 @@ public class FileStringReader {
             System.out.printf("InputStream: %.2f ms%n",
                     (System.nanoTime() - startTime) / 1_000_000.0);
 
+            startTime = System.nanoTime();
+            try (MappedLineReader reader = mapLines(largePath)) {
+                for (MappedLineReader.Chunk chunk : reader.split(4)) {
+                    chunk.forEachLine(line -> {});
+                }
+            }
+            System.out.printf("Mapped lines: %.2f ms%n",
+                    (System.nanoTime() - startTime) / 1_000_000.0);
+
             // Clean up test files
             //Files.delete(Paths.get(filePath));
             //Files.delete(Paths.get(largePath));
 
-        } catch (IOException e) {
+        } catch (Exception e) {
             e.printStackTrace();
         }
     }
@@ -1,9 +1,9 @@
 package convertor;
 
+import java.io.BufferedReader;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
-import java.nio.file.Paths;
-import java.util.ArrayList;
-import java.util.List;
+import java.nio.file.Path;
 import java.util.UUID;
 
 public class Generator {
@@ -19,33 +19,76 @@ public class Generator {
                 System.out.println("salt is empty");
                 return;
             }
-            List<String> originalList = FileStringReader.readAllLines(originalFileName);
-            if (originalList.isEmpty()) {
-                System.out.println("originalList is empty");
+            // Streaming mode: bounded memory, conversion spread over all cores
+            if (args.length > 0 && "stream".equals(args[0])) {
+                GeneratorPipeline pipeline = new GeneratorPipeline(new SecureStringConverter(salt));
+                long count = pipeline.run(Path.of(originalFileName), Path.of("output.txt"));
+                System.out.println("converted " + count + " lines");
+                printMetrics();
+                return;
+            }
+            // Incremental mode: durable batches plus a checkpoint; reruns resume and only convert appended lines
+            if (args.length > 0 && "incremental".equals(args[0])) {
+                IncrementalGenerator generator = new IncrementalGenerator(new SecureStringConverter(salt));
+                long count = generator.run(Path.of(originalFileName), Path.of("output.txt"));
+                System.out.println("converted " + count + " new lines");
+                printMetrics();
+                return;
+            }
+            // Binary mode: one shared salt per file, length-prefixed records, trailing index
+            if (args.length > 0 && "binary".equals(args[0])) {
+                SecureStringConverter converter = new SecureStringConverter(salt);
+                try (BufferedReader reader = Files.newBufferedReader(Path.of(originalFileName), StandardCharsets.UTF_8);
+                     BinaryRecordFile.Writer writer = BinaryRecordFile.create(Path.of("output.bin"), converter)) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        writer.append(StringHandler.transformString(line));
+                    }
+                    System.out.println("converted " + writer.recordCount() + " lines");
+                }
                 return;
             }
+            // Default: convert to output.txt and verify every line in the same pass, reverted lines go to
+            // originalInput.txt. 'sample N' verifies every N-th line only and skips originalInput.txt.
+            // 'bytes' (optionally 'bytes sample N') does the same on raw UTF-8 bytes, without String decode/encode.
+            int arg = 0;
+            boolean bytes = args.length > 0 && "bytes".equals(args[0]);
+            if (bytes) {
+                arg++;
+            }
+            int verifyEvery = 1;
+            Path reverted = Path.of("originalInput.txt");
+            if (args.length > arg + 1 && "sample".equals(args[arg])) {
+                verifyEvery = Integer.parseInt(args[arg + 1]);
+                reverted = null;
+            }
             SecureStringConverter converter = new SecureStringConverter(salt);
-
-            List<String> outPut = new ArrayList<>();
-            for (String o : originalList) {
-               String str = StringHandler.transformString(o);
-                String uuid = converter.convert(str);
-                outPut.add(uuid);
+            GeneratorPipeline.Result result = bytes
+                    ? new ByteGeneratorPipeline(converter).run(Path.of(originalFileName), Path.of("output.txt"),
+                    verifyEvery, reverted)
+                    : new GeneratorPipeline(converter).run(Path.of(originalFileName), Path.of("output.txt"),
+                    verifyEvery, reverted);
+            if (result.lines() == 0) {
+                System.out.println("originalList is empty");
+                return;
             }
-
-            Files.write(Paths.get("output.txt"), outPut);
-            List<String> originalInput = new ArrayList<>();
-            for (String o : outPut) {
-                String uuid = converter.revert(o);
-                String str = StringHandler.reverse(uuid);
-
-                originalInput.add(str);
-                Files.write(Paths.get("originalInput.txt"), originalInput);
+            System.out.println("converted " + result.lines() + " lines, verified " + result.verified()
+                    + ", mismatches " + result.mismatches());
+            for (Long line : result.mismatchLines()) {
+                System.err.println("round trip mismatch at line " + line);
             }
+            printMetrics();
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
 
 
     }
+
+    // Stage timings, when run with -Dconvertor.metrics=true
+    private static void printMetrics() {
+        if (Metrics.isEnabled()) {
+            System.out.print(Metrics.report());
+        }
+    }
 }
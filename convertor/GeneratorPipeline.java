@@ -0,0 +1,255 @@
+package convertor;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Streaming read -> transform -> encrypt -> write pipeline for {@link Generator}.
+ * <p>
+ * Lines are read in batches, each batch is converted on a worker pool, and the
+ * writer consumes the batch futures in submission order, so the output keeps
+ * the input order. The queue of in-flight batches is bounded, which keeps heap
+ * use flat regardless of the input size.
+ * <p>
+ * Optionally the workers also verify the round trip right after encrypting:
+ * every line, or every n-th line, is reverted and compared with the transformed
+ * input. The key for the token was derived moments before, so the revert hits
+ * the key cache. Reverted lines go to a second output in the same single pass,
+ * and mismatches are reported by line number.
+ */
+public class GeneratorPipeline {
+    private static final int DEFAULT_BATCH_SIZE = 256;
+    // Mismatch line numbers kept in the result; the count covers all of them
+    private static final int MAX_REPORTED_MISMATCHES = 1000;
+
+    // Marks the end of input in the pending queue
+    private static final Future<Batch> END = CompletableFuture.completedFuture(null);
+
+    private final SecureStringConverter converter;
+    private final int workers;
+    private final int batchSize;
+
+    public GeneratorPipeline(SecureStringConverter converter) {
+        this(converter, Runtime.getRuntime().availableProcessors(), DEFAULT_BATCH_SIZE);
+    }
+
+    public GeneratorPipeline(SecureStringConverter converter, int workers, int batchSize) {
+        if (workers < 1 || batchSize < 1) {
+            throw new IllegalArgumentException("workers and batchSize must be positive");
+        }
+        this.converter = converter;
+        this.workers = workers;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Outcome of a {@link #run(Path, Path, int, Path)} call
+     */
+    public static final class Result {
+        private final long lines;
+        private final long verified;
+        private final long mismatches;
+        private final List<Long> mismatchLines;
+
+        Result(long lines, long verified, long mismatches, List<Long> mismatchLines) {
+            this.lines = lines;
+            this.verified = verified;
+            this.mismatches = mismatches;
+            this.mismatchLines = Collections.unmodifiableList(mismatchLines);
+        }
+
+        public long lines() {
+            return lines;
+        }
+
+        public long verified() {
+            return verified;
+        }
+
+        public long mismatches() {
+            return mismatches;
+        }
+
+        /**
+         * 1-based input line numbers of the first (up to 1000) mismatches
+         */
+        public List<Long> mismatchLines() {
+            return mismatchLines;
+        }
+    }
+
+    // One converted batch plus its verification outcome
+    private static final class Batch {
+        final List<String> tokens;
+        // Reverted lines when every line is verified and they are written out, else null
+        final List<String> reverted;
+        final List<Long> mismatchLines = new ArrayList<>();
+        int verified;
+
+        Batch(List<String> tokens, List<String> reverted) {
+            this.tokens = tokens;
+            this.reverted = reverted;
+        }
+    }
+
+    /**
+     * Convert every line of {@code input} and write the results to {@code output}.
+     *
+     * @return number of lines written
+     */
+    public long run(Path input, Path output) throws Exception {
+        return run(input, output, 0, null).lines();
+    }
+
+    /**
+     * Convert every line of {@code input} to {@code output}, verifying the round trip on the way.
+     *
+     * @param verifyEvery   verify every n-th line (1 = every line, 0 = none)
+     * @param revertedOutput receives the reverted, de-transformed lines; only allowed with {@code verifyEvery == 1}
+     */
+    public Result run(Path input, Path output, int verifyEvery, Path revertedOutput) throws Exception {
+        if (verifyEvery < 0) {
+            throw new IllegalArgumentException("verifyEvery must not be negative");
+        }
+        if (revertedOutput != null && verifyEvery != 1) {
+            throw new IllegalArgumentException("revertedOutput needs every line to be verified");
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        // Two batches per worker keeps every core busy while the writer drains
+        BlockingQueue<Future<Batch>> pending = new ArrayBlockingQueue<>(workers * 2);
+
+        Thread reader = new Thread(() -> readBatches(input, pool, pending, verifyEvery, revertedOutput != null),
+                "generator-reader");
+        reader.start();
+
+        long written = 0;
+        long verified = 0;
+        long mismatches = 0;
+        List<Long> mismatchLines = new ArrayList<>();
+        BufferedWriter revertedWriter = null;
+        try (BufferedWriter writer = Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+            if (revertedOutput != null) {
+                revertedWriter = Files.newBufferedWriter(revertedOutput, StandardCharsets.UTF_8);
+            }
+            Future<Batch> next;
+            while ((next = pending.take()) != END) {
+                Batch batch = next.get();
+                long t = Metrics.start();
+                for (String line : batch.tokens) {
+                    writer.write(line);
+                    writer.newLine();
+                    written++;
+                }
+                if (revertedWriter != null) {
+                    for (String line : batch.reverted) {
+                        revertedWriter.write(line);
+                        revertedWriter.newLine();
+                    }
+                }
+                Metrics.stop(Metrics.Stage.WRITE, t);
+                verified += batch.verified;
+                mismatches += batch.mismatchLines.size();
+                for (Long line : batch.mismatchLines) {
+                    if (mismatchLines.size() < MAX_REPORTED_MISMATCHES) {
+                        mismatchLines.add(line);
+                    }
+                }
+            }
+        } catch (ExecutionException e) {
+            reader.interrupt();
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        } catch (Exception e) {
+            reader.interrupt();
+            throw e;
+        } finally {
+            if (revertedWriter != null) {
+                revertedWriter.close();
+            }
+            pool.shutdownNow();
+        }
+        reader.join();
+        return new Result(written, verified, mismatches, mismatchLines);
+    }
+
+    private void readBatches(Path input, ExecutorService pool, BlockingQueue<Future<Batch>> pending,
+                             int verifyEvery, boolean keepReverted) {
+        try (BufferedReader in = Files.newBufferedReader(input, StandardCharsets.UTF_8)) {
+            List<String> batch = new ArrayList<>(batchSize);
+            long firstLine = 1;
+            String line;
+            long t = Metrics.start();
+            while ((line = in.readLine()) != null) {
+                batch.add(line);
+                if (batch.size() == batchSize) {
+                    Metrics.stop(Metrics.Stage.READ, t);
+                    pending.put(submit(pool, batch, firstLine, verifyEvery, keepReverted));
+                    firstLine += batch.size();
+                    batch = new ArrayList<>(batchSize);
+                    t = Metrics.start();
+                }
+            }
+            Metrics.stop(Metrics.Stage.READ, t);
+            if (!batch.isEmpty()) {
+                pending.put(submit(pool, batch, firstLine, verifyEvery, keepReverted));
+            }
+            pending.put(END);
+        } catch (InterruptedException e) {
+            // The writer gave up; nothing left to hand over
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            // Surface the failure to the writer through the queue
+            try {
+                pending.put(CompletableFuture.failedFuture(e));
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private Future<Batch> submit(ExecutorService pool, List<String> lines, long firstLine,
+                                 int verifyEvery, boolean keepReverted) {
+        return pool.submit(() -> {
+            Batch batch = new Batch(new ArrayList<>(lines.size()), keepReverted ? new ArrayList<>(lines.size()) : null);
+            for (int i = 0; i < lines.size(); i++) {
+                String str = StringHandler.transformString(lines.get(i));
+                String token = converter.convert(str);
+                batch.tokens.add(token);
+
+                long lineNumber = firstLine + i;
+                if (verifyEvery > 0 && (lineNumber - 1) % verifyEvery == 0) {
+                    batch.verified++;
+                    String reverted = revertQuietly(token);
+                    if (!str.equals(reverted)) {
+                        batch.mismatchLines.add(lineNumber);
+                    }
+                    if (batch.reverted != null) {
+                        batch.reverted.add(reverted == null ? "" : StringHandler.reverse(reverted));
+                    }
+                }
+            }
+            return batch;
+        });
+    }
+
+    // null when the token does not decrypt at all, which counts as a mismatch
+    private String revertQuietly(String token) {
+        try {
+            return converter.revert(token);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
@@ -7,9 +7,10 @@ import javax.crypto.spec.GCMParameterSpec;
 import javax.crypto.spec.PBEKeySpec;
 import javax.crypto.spec.SecretKeySpec;
 import java.nio.ByteBuffer;
-import java.security.SecureRandom;
+import java.nio.charset.StandardCharsets;
 import java.util.Base64;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 public class ImprovedAESUtils {
     private static final byte[] SALT = new byte[]{(byte) 0x53, (byte) 0x6F, (byte) 0x72, (byte) 0x79,
@@ -17,30 +18,74 @@ public class ImprovedAESUtils {
     private static final int GCM_IV_LENGTH = 12;
     private static final int GCM_TAG_LENGTH = 128;
 
-    private static SecretKey generateAESKeyFromPassword(String password) throws Exception {
+    // The salt is fixed, so the key only depends on the password; the static methods derive it once per password
+    private static final DerivedKeyCache KEY_CACHE = new DerivedKeyCache(1_000, 10, TimeUnit.MINUTES);
+
+    static SecretKey generateAESKeyFromPassword(String password) throws Exception {
         PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), SALT, 65536, 256);
-        SecretKeyFactory factory = SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256");
+        SecretKeyFactory factory = CryptoContext.get().pbkdf2Factory();
         byte[] keyBytes = factory.generateSecret(spec).getEncoded();
         return new SecretKeySpec(keyBytes, "AES");
     }
 
+    /**
+     * Derive the key for {@code password} once and reuse it for many messages
+     */
+    public static PreparedKey prepare(String password) throws Exception {
+        return new PreparedKey(generateAESKeyFromPassword(password));
+    }
+
+    /**
+     * Key derived from a password, ready to encrypt and decrypt many messages.
+     * Thread-safe: each call uses the calling thread's GCM cipher.
+     */
+    public static final class PreparedKey {
+        private final SecretKey secretKey;
+
+        private PreparedKey(SecretKey secretKey) {
+            this.secretKey = secretKey;
+        }
+
+        public String encrypt(String originalData) throws Exception {
+            return ImprovedAESUtils.encrypt(secretKey, originalData);
+        }
+
+        public String decrypt(String combined) throws Exception {
+            return ImprovedAESUtils.decrypt(secretKey, combined);
+        }
+    }
+
     public static String encryptToUUID(String originalData, String password) throws Exception {
-        // Generate the AES key from the password
-        SecretKey secretKey = generateAESKeyFromPassword(password);
+        // Look up (or derive once) the AES key for the password
+        SecretKey secretKey = KEY_CACHE.get(password, SALT, (p, salt) -> generateAESKeyFromPassword(p));
+        return encrypt(secretKey, originalData);
+    }
+
+    public static String decryptFromUUID(String combined, String password) throws Exception {
+        SecretKey secretKey = KEY_CACHE.get(password, SALT, (p, salt) -> generateAESKeyFromPassword(p));
+        return decrypt(secretKey, combined);
+    }
+
+    /**
+     * Hits and misses of the per-password key cache behind the static methods
+     */
+    public static DerivedKeyCache getKeyCache() {
+        return KEY_CACHE;
+    }
 
+    private static String encrypt(SecretKey secretKey, String originalData) throws Exception {
         // Generate a random IV
-        byte[] iv = new byte[GCM_IV_LENGTH];
-        new SecureRandom().nextBytes(iv);
+        byte[] iv = CryptoContext.get().randomBytes(GCM_IV_LENGTH);
 
         // Create GCM parameter spec
         GCMParameterSpec gcmParameterSpec = new GCMParameterSpec(GCM_TAG_LENGTH, iv);
 
-        // Initialize cipher
-        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        // Initialize cipher (reused per thread)
+        Cipher cipher = CryptoContext.get().gcmCipher();
         cipher.init(Cipher.ENCRYPT_MODE, secretKey, gcmParameterSpec);
 
         // Encrypt the data
-        byte[] encryptedData = cipher.doFinal(originalData.getBytes());
+        byte[] encryptedData = cipher.doFinal(originalData.getBytes(StandardCharsets.UTF_8));
 
         // Combine IV and encrypted data
         ByteBuffer byteBuffer = ByteBuffer.allocate(iv.length + encryptedData.length);
@@ -52,26 +97,21 @@ public class ImprovedAESUtils {
         return Base64.getEncoder().encodeToString(combined);
     }
 
-    public static String decryptFromUUID(String combined, String password) throws Exception {
-        // Extract IV and encrypted data
-        byte[] combinedBytes = combined.getBytes();
-        ByteBuffer byteBuffer = ByteBuffer.wrap(combinedBytes);
-        byte[] iv = new byte[GCM_IV_LENGTH];
-        byteBuffer.get(iv);
-        byte[] encryptedData = new byte[combinedBytes.length - GCM_IV_LENGTH];
-        byteBuffer.get(encryptedData);
-
-        // Generate the AES key from the password
-        SecretKey secretKey = generateAESKeyFromPassword(password);
-
-        // Initialize cipher for decryption
-        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
-        GCMParameterSpec gcmParameterSpec = new GCMParameterSpec(GCM_TAG_LENGTH, iv);
+    private static String decrypt(SecretKey secretKey, String combined) throws Exception {
+        // Extract IV and encrypted data from the Base64 text written by encrypt
+        byte[] combinedBytes = Base64.getDecoder().decode(combined);
+        if (combinedBytes.length < GCM_IV_LENGTH + GCM_TAG_LENGTH / 8) {
+            throw new IllegalArgumentException("Encrypted data is too short");
+        }
+
+        // Initialize cipher for decryption (reused per thread)
+        Cipher cipher = CryptoContext.get().gcmCipher();
+        GCMParameterSpec gcmParameterSpec = new GCMParameterSpec(GCM_TAG_LENGTH, combinedBytes, 0, GCM_IV_LENGTH);
         cipher.init(Cipher.DECRYPT_MODE, secretKey, gcmParameterSpec);
 
         // Decrypt the data
-        byte[] decryptedData = cipher.doFinal(encryptedData);
-        return new String(decryptedData);
+        byte[] decryptedData = cipher.doFinal(combinedBytes, GCM_IV_LENGTH, combinedBytes.length - GCM_IV_LENGTH);
+        return new String(decryptedData, StandardCharsets.UTF_8);
     }
 
 
@@ -86,6 +126,21 @@ public class ImprovedAESUtils {
             String decrypted = decryptFromUUID(encryptedUUID, password);
             System.out.println("Decrypted: " + decrypted);
 
+            // Derive once, then encrypt many messages
+            PreparedKey key = prepare(password);
+            int messages = 10_000;
+            long start = System.nanoTime();
+            for (int i = 0; i < messages; i++) {
+                key.decrypt(key.encrypt(originalData));
+            }
+            long perMessage = (System.nanoTime() - start) / messages;
+            System.out.println("Prepared key round trip: " + perMessage / 1000.0 + " us/message");
+
+            start = System.nanoTime();
+            generateAESKeyFromPassword(password);
+            System.out.println("PBKDF2 derivation: " + (System.nanoTime() - start) / 1000.0 + " us");
+            System.out.println("Key cache hits: " + KEY_CACHE.hitCount() + ", misses: " + KEY_CACHE.missCount());
+
         } catch (Exception e) {
             e.printStackTrace();
         }
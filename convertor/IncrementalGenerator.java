@@ -0,0 +1,299 @@
+package convertor;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+
+/**
+ * Resumable, incremental variant of the {@link Generator} run.
+ * <p>
+ * Converted lines are appended to the output in batches. After each batch the
+ * output is forced to disk and a checkpoint ({@code <output>.checkpoint}) records
+ * how far the input has been consumed and how long the output is. A later run
+ * truncates the output back to the checkpoint (dropping a batch that was cut off
+ * by a crash) and continues from the recorded input offset, so a restart redoes
+ * at most one batch and a nightly run only converts lines appended since the
+ * previous one.
+ * <p>
+ * Only newline-terminated lines are converted; an unterminated last line is
+ * picked up by the run after it is completed. The checkpoint also keeps a CRC of
+ * the first input bytes, so a rewritten (rather than appended) input is
+ * rejected instead of being silently mixed into the old output.
+ */
+public class IncrementalGenerator {
+    private static final int DEFAULT_BATCH_SIZE = 4096;
+    private static final int HEAD_LENGTH = 4096;
+
+    private final SecureStringConverter converter;
+    private final int workers;
+    private final int batchSize;
+
+    public IncrementalGenerator(SecureStringConverter converter) {
+        this(converter, Runtime.getRuntime().availableProcessors(), DEFAULT_BATCH_SIZE);
+    }
+
+    public IncrementalGenerator(SecureStringConverter converter, int workers, int batchSize) {
+        if (workers < 1 || batchSize < 1) {
+            throw new IllegalArgumentException("workers and batchSize must be positive");
+        }
+        this.converter = converter;
+        this.workers = workers;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Progress recorded after the last durable batch
+     */
+    public static final class Checkpoint {
+        final long inputOffset;
+        final long outputOffset;
+        final long lines;
+        final long headCrc;
+        final int headLength;
+
+        Checkpoint(long inputOffset, long outputOffset, long lines, long headCrc, int headLength) {
+            this.inputOffset = inputOffset;
+            this.outputOffset = outputOffset;
+            this.lines = lines;
+            this.headCrc = headCrc;
+            this.headLength = headLength;
+        }
+
+        public long inputOffset() {
+            return inputOffset;
+        }
+
+        public long outputOffset() {
+            return outputOffset;
+        }
+
+        public long lines() {
+            return lines;
+        }
+    }
+
+    public static Path checkpointPath(Path output) {
+        return output.resolveSibling(output.getFileName() + ".checkpoint");
+    }
+
+    /**
+     * Convert the lines of {@code input} not yet covered by the checkpoint and append them to {@code output}.
+     *
+     * @return number of lines converted in this run
+     */
+    public long run(Path input, Path output) throws Exception {
+        Path checkpointFile = checkpointPath(output);
+        Checkpoint checkpoint = load(checkpointFile);
+        if (checkpoint == null) {
+            checkpoint = new Checkpoint(0, 0, 0, 0, 0);
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            verifyInput(in, checkpoint, input);
+            if (out.size() < checkpoint.outputOffset) {
+                throw new IOException("Output is shorter than its checkpoint: " + output);
+            }
+            // Drop whatever a crashed run wrote after its last checkpoint
+            out.truncate(checkpoint.outputOffset);
+            out.position(checkpoint.outputOffset);
+
+            long inputOffset = checkpoint.inputOffset;
+            long outputOffset = checkpoint.outputOffset;
+            long lines = checkpoint.lines;
+            long converted = 0;
+            long headCrc = checkpoint.headCrc;
+            int headLength = checkpoint.headLength;
+            LineSource source = new LineSource(Channels.newInputStream(in.position(inputOffset)));
+            List<String> batch = new ArrayList<>(batchSize);
+            while (true) {
+                batch.clear();
+                long consumed = source.readLines(batch, batchSize);
+                if (batch.isEmpty()) {
+                    break;
+                }
+                byte[] encoded = convertBatch(pool, batch);
+                ByteBuffer buffer = ByteBuffer.wrap(encoded);
+                while (buffer.hasRemaining()) {
+                    out.write(buffer);
+                }
+                out.force(false);
+
+                inputOffset += consumed;
+                outputOffset += encoded.length;
+                lines += batch.size();
+                converted += batch.size();
+                if (headLength < HEAD_LENGTH) {
+                    headLength = (int) Math.min(HEAD_LENGTH, inputOffset);
+                    headCrc = headCrc(in, headLength);
+                }
+                store(checkpointFile, new Checkpoint(inputOffset, outputOffset, lines, headCrc, headLength));
+            }
+            return converted;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private byte[] convertBatch(ExecutorService pool, List<String> batch) throws Exception {
+        int slice = (batch.size() + workers - 1) / workers;
+        List<Future<String>> parts = new ArrayList<>(workers);
+        for (int from = 0; from < batch.size(); from += slice) {
+            List<String> part = batch.subList(from, Math.min(batch.size(), from + slice));
+            parts.add(pool.submit(() -> {
+                StringBuilder sb = new StringBuilder(part.size() * 96);
+                for (String line : part) {
+                    sb.append(converter.convert(StringHandler.transformString(line))).append('\n');
+                }
+                return sb.toString();
+            }));
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(batch.size() * 96);
+        for (Future<String> part : parts) {
+            try {
+                bytes.write(part.get().getBytes(StandardCharsets.UTF_8));
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void verifyInput(FileChannel in, Checkpoint checkpoint, Path input) throws IOException {
+        if (in.size() < checkpoint.inputOffset) {
+            throw new IOException("Input is shorter than the checkpoint, it was not only appended to: " + input);
+        }
+        if (checkpoint.headLength > 0 && headCrc(in, checkpoint.headLength) != checkpoint.headCrc) {
+            throw new IOException("Input changed before the checkpoint, it was not only appended to: " + input);
+        }
+    }
+
+    private static long headCrc(FileChannel in, int length) throws IOException {
+        ByteBuffer head = ByteBuffer.allocate((int) Math.min(length, in.size()));
+        while (head.hasRemaining() && in.read(head, head.position()) > 0) {
+        }
+        CRC32 crc = new CRC32();
+        crc.update(head.flip());
+        return crc.getValue();
+    }
+
+    static Checkpoint load(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return null;
+        }
+        Properties props = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            props.load(reader);
+        }
+        try {
+            return new Checkpoint(
+                    Long.parseLong(props.getProperty("inputOffset")),
+                    Long.parseLong(props.getProperty("outputOffset")),
+                    Long.parseLong(props.getProperty("lines")),
+                    Long.parseLong(props.getProperty("headCrc")),
+                    Integer.parseInt(props.getProperty("headLength")));
+        } catch (RuntimeException e) {
+            throw new IOException("Corrupt checkpoint: " + file, e);
+        }
+    }
+
+    /**
+     * Write to a temp file, force it, then rename over the old checkpoint so a crash leaves either one intact
+     */
+    static void store(Path file, Checkpoint checkpoint) throws IOException {
+        Properties props = new Properties();
+        props.setProperty("inputOffset", Long.toString(checkpoint.inputOffset));
+        props.setProperty("outputOffset", Long.toString(checkpoint.outputOffset));
+        props.setProperty("lines", Long.toString(checkpoint.lines));
+        props.setProperty("headCrc", Long.toString(checkpoint.headCrc));
+        props.setProperty("headLength", Integer.toString(checkpoint.headLength));
+
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+             OutputStream out = Channels.newOutputStream(channel)) {
+            props.store(out, null);
+            channel.force(true);
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Splits UTF-8 input into complete lines while counting the bytes consumed
+     */
+    private static final class LineSource {
+        private final InputStream in;
+        private final byte[] buffer = new byte[1 << 16];
+        private int position;
+        private int limit;
+        private byte[] line = new byte[256];
+        private int length;
+
+        LineSource(InputStream in) {
+            this.in = in;
+        }
+
+        /**
+         * Append up to {@code max} complete lines to {@code lines}
+         *
+         * @return bytes consumed by those lines, terminators included
+         */
+        long readLines(List<String> lines, int max) throws IOException {
+            long consumed = 0;
+            while (lines.size() < max) {
+                if (position == limit) {
+                    limit = in.read(buffer);
+                    position = 0;
+                    if (limit < 0) {
+                        // Unterminated tail: leave it for the next run
+                        limit = 0;
+                        break;
+                    }
+                }
+                int newline = position;
+                while (newline < limit && buffer[newline] != '\n') {
+                    newline++;
+                }
+                append(position, newline - position);
+                if (newline == limit) {
+                    position = limit;
+                    continue;
+                }
+                position = newline + 1;
+                int end = length > 0 && line[length - 1] == '\r' ? length - 1 : length;
+                lines.add(new String(line, 0, end, StandardCharsets.UTF_8));
+                consumed += length + 1;
+                length = 0;
+            }
+            return consumed;
+        }
+
+        private void append(int from, int count) {
+            if (length + count > line.length) {
+                line = Arrays.copyOf(line, Math.max(line.length * 2, length + count));
+            }
+            System.arraycopy(buffer, from, line, length, count);
+            length += count;
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package convertor;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Line reader backed by {@link FileChannel#map}.
+ * <p>
+ * Lines are handed out as {@link Line} views over the mapped file, so the file
+ * content is never copied onto the heap. The file can be split into
+ * line-aligned {@link Chunk}s that workers consume in parallel; each chunk is
+ * mapped on its own, which also keeps files larger than 2 GB readable.
+ * Lines end at {@code \n}, a trailing {@code \r} is dropped, and the last
+ * line does not need a terminator.
+ */
+public final class MappedLineReader implements Closeable {
+    // Target size of one mapped chunk; a single mapping can not exceed 2 GB
+    static final long MAX_CHUNK_SIZE = 1L << 30;
+    private static final int SCAN_BUFFER_SIZE = 8192;
+
+    /**
+     * Receives each line; the {@link Line} instance is reused between calls
+     */
+    @FunctionalInterface
+    public interface LineConsumer {
+        void accept(Line line) throws Exception;
+    }
+
+    private final FileChannel channel;
+    private final long size;
+
+    private MappedLineReader(FileChannel channel) throws IOException {
+        this.channel = channel;
+        this.size = channel.size();
+    }
+
+    public static MappedLineReader open(Path path) throws IOException {
+        return new MappedLineReader(FileChannel.open(path, StandardOpenOption.READ));
+    }
+
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Visit every line in file order
+     *
+     * @return number of lines visited
+     */
+    public long forEachLine(LineConsumer consumer) throws Exception {
+        long count = 0;
+        for (Chunk chunk : split(1)) {
+            count += chunk.forEachLine(consumer);
+        }
+        return count;
+    }
+
+    /**
+     * Split the file into about {@code parts} line-aligned chunks.
+     * More chunks are returned when needed to keep each one under {@link #MAX_CHUNK_SIZE}.
+     */
+    public List<Chunk> split(int parts) throws IOException {
+        List<Chunk> chunks = new ArrayList<>();
+        if (size == 0) {
+            return chunks;
+        }
+        long minParts = (size + MAX_CHUNK_SIZE - 1) / MAX_CHUNK_SIZE;
+        long count = Math.max(Math.max(parts, 1), minParts);
+        long target = (size + count - 1) / count;
+
+        long start = 0;
+        while (start < size) {
+            long end = start + target >= size ? size : nextLineStart(start + target);
+            if (end - start > Integer.MAX_VALUE) {
+                throw new IOException("Line starting near offset " + start + " is too long to map");
+            }
+            chunks.add(new Chunk(start, end));
+            start = end;
+        }
+        return chunks;
+    }
+
+    /**
+     * Offset of the first line starting at or after {@code position}
+     */
+    private long nextLineStart(long position) throws IOException {
+        ByteBuffer scan = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+        // Start one byte early so a position that already begins a line is kept
+        long pos = position - 1;
+        while (pos < size) {
+            scan.clear();
+            int read = channel.read(scan, pos);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (scan.get(i) == '\n') {
+                    return pos + i + 1;
+                }
+            }
+            pos += read;
+        }
+        return size;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Line-aligned byte range of the file
+     */
+    public final class Chunk {
+        private final long start;
+        private final long end;
+
+        private Chunk(long start, long end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        public long start() {
+            return start;
+        }
+
+        public long end() {
+            return end;
+        }
+
+        /**
+         * Map this chunk and visit each of its lines in order
+         *
+         * @return number of lines visited
+         */
+        public long forEachLine(LineConsumer consumer) throws Exception {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+            Line line = new Line(buffer, start);
+            int limit = buffer.limit();
+            long count = 0;
+            int lineStart = 0;
+            for (int i = 0; i < limit; i++) {
+                if (buffer.get(i) == '\n') {
+                    consumer.accept(line.set(lineStart, i));
+                    count++;
+                    lineStart = i + 1;
+                }
+            }
+            if (lineStart < limit) {
+                consumer.accept(line.set(lineStart, limit));
+                count++;
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Zero-copy view of one line (without the line terminator)
+     */
+    public static final class Line {
+        private final ByteBuffer buffer;
+        private final long baseOffset;
+        private int offset;
+        private int length;
+
+        private Line(ByteBuffer buffer, long baseOffset) {
+            this.buffer = buffer;
+            this.baseOffset = baseOffset;
+        }
+
+        private Line set(int start, int end) {
+            if (end > start && buffer.get(end - 1) == '\r') {
+                end--;
+            }
+            this.offset = start;
+            this.length = end - start;
+            return this;
+        }
+
+        /**
+         * Mapped buffer holding the line; the line is {@code [offset(), offset() + length())}
+         */
+        public ByteBuffer buffer() {
+            return buffer;
+        }
+
+        public int offset() {
+            return offset;
+        }
+
+        public int length() {
+            return length;
+        }
+
+        /**
+         * Offset of the first byte of this line in the file
+         */
+        public long fileOffset() {
+            return baseOffset + offset;
+        }
+
+        public byte byteAt(int index) {
+            return buffer.get(offset + index);
+        }
+
+        /**
+         * Copy the line bytes into {@code dst}
+         *
+         * @return number of bytes copied
+         */
+        public int copyTo(byte[] dst, int dstOff) {
+            buffer.get(offset, dst, dstOff, length);
+            return length;
+        }
+
+        /**
+         * Decode the line as UTF-8 (copies)
+         */
+        @Override
+        public String toString() {
+            byte[] bytes = new byte[length];
+            copyTo(bytes, 0);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package convertor;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+
+/**
+ * Per-stage latency histograms and throughput counters for the conversion path.
+ * <p>
+ * Call sites wrap a stage as
+ * <pre>
+ * long t = Metrics.start();
+ * ...
+ * Metrics.stop(Metrics.Stage.AES_GCM, t);
+ * </pre>
+ * When metrics are off, {@link #start()} returns 0 without reading the clock and
+ * {@link #stop} returns immediately, so the cost is one volatile read per stage.
+ * Metrics are off unless {@code -Dconvertor.metrics=true} or {@link #setEnabled}.
+ * Nothing is registered with JMX until {@link #register()} is called (or
+ * {@code -Dconvertor.metrics.jmx=true} is set); after that they can be toggled at
+ * runtime through the {@code convertor:type=Metrics} MBean, and each stage is
+ * published as {@code convertor:type=Stage,name=<stage>}. With
+ * {@code -Dconvertor.metrics.jfr=true} every measured call is also emitted as a
+ * {@code convertor.Stage} JFR event (enable it in the recording settings).
+ */
+public final class Metrics {
+
+    public enum Stage {
+        READ, TRANSFORM, COMPRESS, DERIVE_KEY, AES_GCM, BASE58, WRITE
+    }
+
+    public interface StageStatsMXBean {
+        long getCount();
+
+        double getRatePerSecond();
+
+        double getMeanNanos();
+
+        long getP50Nanos();
+
+        long getP90Nanos();
+
+        long getP99Nanos();
+
+        long getP999Nanos();
+
+        long getMaxNanos();
+    }
+
+    public interface MetricsControlMXBean {
+        boolean isEnabled();
+
+        void setEnabled(boolean enabled);
+
+        void reset();
+    }
+
+    private static final LatencyHistogram[] HISTOGRAMS = new LatencyHistogram[Stage.values().length];
+    private static final boolean JFR = Boolean.getBoolean("convertor.metrics.jfr");
+    private static volatile boolean enabled =
+            Boolean.getBoolean("convertor.metrics");
+    private static volatile long resetAt = System.nanoTime();
+
+    static {
+        for (Stage stage : Stage.values()) {
+            HISTOGRAMS[stage.ordinal()] = new LatencyHistogram();
+        }
+        if (Boolean.getBoolean("convertor.metrics.jmx")) {
+            register();
+        }
+    }
+
+    private Metrics() {
+    }
+
+    /**
+     * Start time for {@link #stop}, or 0 when metrics are off
+     */
+    public static long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    public static void stop(Stage stage, long start) {
+        if (start == 0) {
+            return;
+        }
+        long latency = System.nanoTime() - start;
+        HISTOGRAMS[stage.ordinal()].record(latency);
+        if (JFR) {
+            StageEvent event = new StageEvent();
+            if (event.shouldCommit()) {
+                event.stage = stage.name();
+                event.latency = latency;
+                event.commit();
+            }
+        }
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean on) {
+        enabled = on;
+    }
+
+    public static void reset() {
+        for (LatencyHistogram histogram : HISTOGRAMS) {
+            histogram.reset();
+        }
+        resetAt = System.nanoTime();
+    }
+
+    /**
+     * One line per stage that recorded anything
+     */
+    public static String report() {
+        StringBuilder sb = new StringBuilder(String.format(Locale.ROOT,
+                "%-11s %12s %12s %10s %10s %10s %10s%n", "stage", "count", "ops/s", "mean us", "p50 us", "p99 us", "max us"));
+        for (Stage stage : Stage.values()) {
+            StageStats stats = new StageStats(stage);
+            if (stats.getCount() == 0) {
+                continue;
+            }
+            sb.append(String.format(Locale.ROOT, "%-11s %12d %12.0f %10.1f %10.1f %10.1f %10.1f%n",
+                    stage.name().toLowerCase(Locale.ROOT), stats.getCount(), stats.getRatePerSecond(),
+                    stats.getMeanNanos() / 1000.0, stats.getP50Nanos() / 1000.0,
+                    stats.getP99Nanos() / 1000.0, stats.getMaxNanos() / 1000.0));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Publish the control and per-stage MBeans on the platform MBean server; repeated calls are no-ops
+     */
+    public static synchronized void register() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName control = new ObjectName("convertor:type=Metrics");
+            if (!server.isRegistered(control)) {
+                server.registerMBean(new Control(), control);
+            }
+            for (Stage stage : Stage.values()) {
+                ObjectName name = new ObjectName("convertor:type=Stage,name=" + stage.name().toLowerCase(Locale.ROOT));
+                if (!server.isRegistered(name)) {
+                    server.registerMBean(new StageStats(stage), name);
+                }
+            }
+        } catch (Exception e) {
+            // JMX is optional; the in-process counters still work
+            System.err.println("Could not register convertor metrics MBeans: " + e);
+        }
+    }
+
+    private static final class StageStats implements StageStatsMXBean {
+        private final LatencyHistogram histogram;
+
+        StageStats(Stage stage) {
+            this.histogram = HISTOGRAMS[stage.ordinal()];
+        }
+
+        @Override
+        public long getCount() {
+            return histogram.count();
+        }
+
+        @Override
+        public double getRatePerSecond() {
+            double seconds = (System.nanoTime() - resetAt) / 1_000_000_000.0;
+            return seconds <= 0 ? 0 : histogram.count() / seconds;
+        }
+
+        @Override
+        public double getMeanNanos() {
+            return histogram.mean();
+        }
+
+        @Override
+        public long getP50Nanos() {
+            return histogram.percentile(50);
+        }
+
+        @Override
+        public long getP90Nanos() {
+            return histogram.percentile(90);
+        }
+
+        @Override
+        public long getP99Nanos() {
+            return histogram.percentile(99);
+        }
+
+        @Override
+        public long getP999Nanos() {
+            return histogram.percentile(99.9);
+        }
+
+        @Override
+        public long getMaxNanos() {
+            return histogram.max();
+        }
+    }
+
+    private static final class Control implements MetricsControlMXBean {
+        @Override
+        public boolean isEnabled() {
+            return Metrics.isEnabled();
+        }
+
+        @Override
+        public void setEnabled(boolean enabled) {
+            Metrics.setEnabled(enabled);
+        }
+
+        @Override
+        public void reset() {
+            Metrics.reset();
+        }
+    }
+}
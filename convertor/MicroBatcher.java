@@ -0,0 +1,155 @@
+package convertor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coalesces concurrent single-item requests into small batches.
+ * <p>
+ * A dispatcher thread collects requests until the batch is full or the oldest
+ * request has waited {@code maxDelay}, then hands the batch to a worker pool.
+ * At most {@code maxInFlight} batches are handed over at a time; beyond that the
+ * dispatcher stops taking requests, so the bounded queue fills up and
+ * {@link #submit} rejects new ones instead of piling work onto the pool.
+ * If a batch fails as a whole, its items are retried one by one so each caller
+ * gets its own result or error.
+ */
+final class MicroBatcher<I, O> implements AutoCloseable {
+
+    interface BatchFunction<I, O> {
+        List<O> apply(List<I> batch) throws Exception;
+    }
+
+    private static final class Request<I, O> {
+        final I input;
+        final CompletableFuture<O> result = new CompletableFuture<>();
+
+        Request(I input) {
+            this.input = input;
+        }
+    }
+
+    private final BlockingQueue<Request<I, O>> queue;
+    private final BatchFunction<I, O> function;
+    private final ExecutorService workers;
+    private final int maxBatch;
+    private final long maxDelayNanos;
+    private final Semaphore inFlight;
+    private final Thread dispatcher;
+    private volatile boolean running = true;
+
+    MicroBatcher(String name, int maxBatch, long maxDelay, TimeUnit unit, int queueCapacity, int maxInFlight,
+                 ExecutorService workers, BatchFunction<I, O> function) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("maxInFlight must be positive");
+        }
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.function = function;
+        this.workers = workers;
+        this.maxBatch = maxBatch;
+        this.maxDelayNanos = unit.toNanos(maxDelay);
+        this.inFlight = new Semaphore(maxInFlight);
+        this.dispatcher = new Thread(this::dispatch, name + "-batcher");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    /**
+     * Queue one item; fails fast with {@link RejectedExecutionException} when the queue is full
+     */
+    CompletableFuture<O> submit(I input) {
+        Request<I, O> request = new Request<>(input);
+        if (!running || !queue.offer(request)) {
+            request.result.completeExceptionally(new RejectedExecutionException("Batch queue is full"));
+        }
+        return request.result;
+    }
+
+    private void dispatch() {
+        while (running) {
+            List<Request<I, O>> batch = new ArrayList<>(maxBatch);
+            try {
+                // Wait for a free slot before collecting; meanwhile requests queue up (and overflow)
+                inFlight.acquire();
+            } catch (InterruptedException e) {
+                break;
+            }
+            try {
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + maxDelayNanos;
+                while (batch.size() < maxBatch) {
+                    queue.drainTo(batch, maxBatch - batch.size());
+                    long wait = deadline - System.nanoTime();
+                    if (batch.size() >= maxBatch || wait <= 0) {
+                        break;
+                    }
+                    Request<I, O> next = queue.poll(wait, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                inFlight.release();
+                failAll(batch, e);
+                break;
+            }
+            try {
+                workers.execute(() -> {
+                    try {
+                        run(batch);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                inFlight.release();
+                failAll(batch, e);
+            }
+        }
+    }
+
+    private void run(List<Request<I, O>> batch) {
+        List<I> inputs = new ArrayList<>(batch.size());
+        for (Request<I, O> request : batch) {
+            inputs.add(request.input);
+        }
+        try {
+            List<O> outputs = function.apply(inputs);
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).result.complete(outputs.get(i));
+            }
+        } catch (Exception batchFailure) {
+            // Retry item by item so one bad input does not fail the others
+            for (Request<I, O> request : batch) {
+                try {
+                    request.result.complete(function.apply(List.of(request.input)).get(0));
+                } catch (Exception e) {
+                    request.result.completeExceptionally(e);
+                }
+            }
+        }
+    }
+
+    private void failAll(List<Request<I, O>> batch, Exception cause) {
+        for (Request<I, O> request : batch) {
+            request.result.completeExceptionally(cause);
+        }
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        dispatcher.interrupt();
+        List<Request<I, O>> left = new ArrayList<>();
+        queue.drainTo(left);
+        failAll(left, new RejectedExecutionException("Batcher closed"));
+    }
+}
@@ -0,0 +1,132 @@
+package convertor;
+
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Optional compression of a plaintext before it is encrypted.
+ * <p>
+ * The packed form starts with a flag byte: {@link #RAW} is followed by the
+ * bytes as they were, {@link #DEFLATED} by the original length (4 bytes, big
+ * endian) and a raw deflate stream. The GCM tag already authenticates the
+ * payload, so no zlib header or checksum is written. Records below the
+ * threshold, and records that would not get smaller, are stored raw.
+ * <p>
+ * {@code Deflater} and {@code Inflater} hold native zlib state that is costly to
+ * set up and only released by {@code end()}, so each thread keeps one of each,
+ * plus an output scratch buffer, and resets them after every record.
+ */
+final class PayloadCompression {
+    static final byte RAW = 0;
+    static final byte DEFLATED = 1;
+
+    private static final int DEFLATED_HEADER = 5;
+    private static final ThreadLocal<PayloadCompression> CODEC = ThreadLocal.withInitial(PayloadCompression::new);
+
+    // Speed over ratio: repetitive records still shrink several times at level 1
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED, true);
+    private final Inflater inflater = new Inflater(true);
+    private byte[] scratch = new byte[8192];
+
+    private PayloadCompression() {
+    }
+
+    /**
+     * Flag byte plus either the deflated or the raw bytes, whichever is smaller
+     *
+     * @param threshold records shorter than this are not compressed
+     */
+    static byte[] pack(byte[] plain, int threshold) {
+        return pack(plain, 0, plain.length, threshold);
+    }
+
+    static byte[] pack(byte[] plain, int off, int len, int threshold) {
+        if (len >= threshold && len > DEFLATED_HEADER) {
+            byte[] packed = CODEC.get().deflate(plain, off, len);
+            if (packed != null) {
+                return packed;
+            }
+        }
+        byte[] raw = new byte[len + 1];
+        raw[0] = RAW;
+        System.arraycopy(plain, off, raw, 1, len);
+        return raw;
+    }
+
+    /**
+     * Original bytes of a {@link #pack} result
+     */
+    static byte[] unpack(byte[] packed) throws DataFormatException {
+        if (packed.length == 0) {
+            throw new DataFormatException("Empty payload");
+        }
+        switch (packed[0]) {
+            case RAW:
+                return Arrays.copyOfRange(packed, 1, packed.length);
+            case DEFLATED:
+                if (packed.length < DEFLATED_HEADER) {
+                    throw new DataFormatException("Truncated compressed payload");
+                }
+                int length = (packed[1] & 0xFF) << 24 | (packed[2] & 0xFF) << 16
+                        | (packed[3] & 0xFF) << 8 | (packed[4] & 0xFF);
+                if (length < 0) {
+                    throw new DataFormatException("Invalid original length: " + length);
+                }
+                return CODEC.get().inflate(packed, length);
+            default:
+                throw new DataFormatException("Unknown payload flag: " + packed[0]);
+        }
+    }
+
+    // null if the deflated form would not be smaller than the raw one
+    private byte[] deflate(byte[] plain, int off, int len) {
+        // Packed raw is length + 1 bytes, so the deflated stream may use at most length - 5
+        int limit = len - DEFLATED_HEADER;
+        if (scratch.length < len) {
+            scratch = new byte[Math.max(len, scratch.length * 2)];
+        }
+        try {
+            deflater.setInput(plain, off, len);
+            deflater.finish();
+            int written = DEFLATED_HEADER;
+            int end = DEFLATED_HEADER + limit;
+            while (!deflater.finished() && written < end) {
+                written += deflater.deflate(scratch, written, end - written);
+            }
+            if (!deflater.finished()) {
+                return null;
+            }
+            scratch[0] = DEFLATED;
+            scratch[1] = (byte) (len >>> 24);
+            scratch[2] = (byte) (len >>> 16);
+            scratch[3] = (byte) (len >>> 8);
+            scratch[4] = (byte) len;
+            return Arrays.copyOf(scratch, written);
+        } finally {
+            deflater.reset();
+        }
+    }
+
+    private byte[] inflate(byte[] packed, int length) throws DataFormatException {
+        byte[] out = new byte[length];
+        try {
+            inflater.setInput(packed, DEFLATED_HEADER, packed.length - DEFLATED_HEADER);
+            int read = 0;
+            while (!inflater.finished()) {
+                int n = inflater.inflate(out, read, length - read);
+                read += n;
+                if (n == 0 && (inflater.needsInput() || read == length)) {
+                    break;
+                }
+            }
+            if (!inflater.finished() || read != length) {
+                throw new DataFormatException("Compressed payload does not match its length " + length);
+            }
+            return out;
+        } finally {
+            inflater.reset();
+        }
+    }
+}
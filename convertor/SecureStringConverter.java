@@ -1,15 +1,29 @@
 package convertor;
 
+import javax.crypto.AEADBadTagException;
 import javax.crypto.Cipher;
 import javax.crypto.SecretKey;
 import javax.crypto.SecretKeyFactory;
 import javax.crypto.spec.GCMParameterSpec;
 import javax.crypto.spec.PBEKeySpec;
 import javax.crypto.spec.SecretKeySpec;
-import java.security.SecureRandom;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
 public class SecureStringConverter {
     private static final int SALT_LENGTH = 16;
@@ -17,44 +31,194 @@ public class SecureStringConverter {
     private static final int KEY_LENGTH = 256;
     private static final int ITERATION_COUNT = 65536;
     private static final int GCM_TAG_LENGTH = 128;
+    private static final int HEADER_LENGTH = SALT_LENGTH + IV_LENGTH;
+    private static final int TAG_BYTES = GCM_TAG_LENGTH / 8;
+
+    /**
+     * 不压缩（默认），令牌格式与旧版本一致
+     */
+    public static final int NO_COMPRESSION = -1;
+
+    // 启用压缩时生成的令牌在 AAD（salt 之后）中多带这个标记，格式不匹配的令牌认证失败，不会被误解析
+    private static final byte[] COMPRESSED_AAD = "convertor/deflate".getBytes(StandardCharsets.US_ASCII);
+
+    // 二进制接口使用的每线程盐值/IV缓冲区（密钥缓存会复制盐值），以及字节令牌解码用的缓冲区
+    private static final ThreadLocal<byte[][]> SCRATCH =
+            ThreadLocal.withInitial(() -> new byte[][]{new byte[SALT_LENGTH], new byte[IV_LENGTH], new byte[256]});
+
+    // 默认的派生密钥缓存，所有实例共享
+    private static final DerivedKeyCache DEFAULT_KEY_CACHE =
+            new DerivedKeyCache(10_000, 10, TimeUnit.MINUTES);
 
     // 存储密码，但不直接使用
     private final String password;
+    private final DerivedKeyCache keyCache;
+    private final int compressionThreshold;
 
     public SecureStringConverter(String password) {
+        this(password, DEFAULT_KEY_CACHE);
+    }
+
+    public SecureStringConverter(String password, DerivedKeyCache keyCache) {
+        this(password, keyCache, NO_COMPRESSION);
+    }
+
+    /**
+     * 启用加密前压缩：明文前加一个标志字节，不短于 compressionThreshold 字节的记录先做 Deflate，
+     * 压缩后没有变小的记录按原样存储。压缩格式绑定在 GCM 的关联数据中：不启用压缩的实例还原压缩令牌时认证失败并抛出异常，
+     * 启用压缩的实例也能还原旧格式（不压缩）的令牌。
+     * 只作用于字符串接口；ByteBuffer 和流式接口的格式不变。
+     *
+     * @param compressionThreshold 压缩阈值（字节），{@link #NO_COMPRESSION} 表示不压缩
+     */
+    public SecureStringConverter(String password, DerivedKeyCache keyCache, int compressionThreshold) {
         this.password = password;
+        this.keyCache = keyCache;
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    /**
+     * 派生密钥缓存（可查看命中/未命中次数）
+     */
+    public DerivedKeyCache getKeyCache() {
+        return keyCache;
     }
 
     /**
      * 将字符串转换为加密后的格式
      */
     public String convert(String input) throws Exception {
-        // 生成随机盐值和IV
+        // 生成随机盐值
         byte[] salt = generateRandomBytes(SALT_LENGTH);
-        byte[] iv = generateRandomBytes(IV_LENGTH);
 
         // 从密码派生密钥
         SecretKey key = deriveKey(password, salt);
 
-        // 初始化加密器
-        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
-        GCMParameterSpec gcmSpec = new GCMParameterSpec(GCM_TAG_LENGTH, iv);
-        cipher.init(Cipher.ENCRYPT_MODE, key, gcmSpec);
+        return encrypt(key, salt, input);
+    }
 
-        // 添加关联数据（salt）以增加安全性
-        cipher.updateAAD(salt);
+    /**
+     * 批量转换：整批共用一个盐值，只派生一次密钥，每条记录仍使用独立的IV
+     */
+    public List<String> convertAll(List<String> inputs) throws Exception {
+        byte[] salt = generateRandomBytes(SALT_LENGTH);
+        SecretKey key = deriveKey(password, salt);
 
-        // 加密数据
-        byte[] cipherText = cipher.doFinal(input.getBytes(StandardCharsets.UTF_8));
+        List<String> result = new ArrayList<>(inputs.size());
+        for (String input : inputs) {
+            result.add(encrypt(key, salt, input));
+        }
+        return result;
+    }
 
-        // 组合所有数据：salt + iv + 密文
-        ByteBuffer buffer = ByteBuffer.allocate(salt.length + iv.length + cipherText.length);
-        buffer.put(salt);
-        buffer.put(iv);
-        buffer.put(cipherText);
+    /**
+     * 批量还原；同一批转换出的记录共用盐值，密钥直接命中缓存
+     */
+    public List<String> revertAll(List<String> encrypted) throws Exception {
+        List<String> result = new ArrayList<>(encrypted.size());
+        for (String e : encrypted) {
+            result.add(revert(e));
+        }
+        return result;
+    }
+
+    /**
+     * 批量还原，按盐值分组：每个不同的盐值只派生一次密钥，不同盐值的组交给 executor 并行处理。
+     * 当前线程也会处理还没有开始的组，所以在 executor 自己的工作线程中调用也不会因线程耗尽而死锁。
+     */
+    public List<String> revertAll(List<String> encrypted, ExecutorService executor) throws Exception {
+        // 先解码全部令牌，按盐值分组（ByteBuffer 按内容比较，只覆盖 salt 部分）
+        byte[][] raws = new byte[encrypted.size()][];
+        Map<ByteBuffer, List<Integer>> groups = new LinkedHashMap<>();
+        for (int i = 0; i < raws.length; i++) {
+            long t = Metrics.start();
+            byte[] raw = Base58.decode(encrypted.get(i));
+            Metrics.stop(Metrics.Stage.BASE58, t);
+            if (raw.length < HEADER_LENGTH + TAG_BYTES) {
+                throw new IllegalArgumentException("Input too short: " + raw.length + " bytes");
+            }
+            raws[i] = raw;
+            groups.computeIfAbsent(ByteBuffer.wrap(raw, 0, SALT_LENGTH), k -> new ArrayList<>()).add(i);
+        }
+
+        String[] result = new String[raws.length];
+        List<FutureTask<Void>> tasks = new ArrayList<>(groups.size());
+        for (List<Integer> group : groups.values()) {
+            tasks.add(new FutureTask<>(() -> {
+                byte[] salt = Arrays.copyOf(raws[group.get(0)], SALT_LENGTH);
+                for (int i : group) {
+                    result[i] = new String(open(raws[i], raws[i].length, salt), StandardCharsets.UTF_8);
+                }
+                return null;
+            }));
+        }
+        // 第一组留给当前线程，其余交给 executor；被拒绝的组由当前线程补做
+        for (int i = 1; i < tasks.size(); i++) {
+            try {
+                executor.execute(tasks.get(i));
+            } catch (RejectedExecutionException e) {
+                break;
+            }
+        }
+        for (FutureTask<Void> task : tasks) {
+            // 已经在其他线程开始或完成的任务，run() 直接返回
+            task.run();
+        }
+        for (FutureTask<Void> task : tasks) {
+            try {
+                task.get();
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+            }
+        }
+        return Arrays.asList(result);
+    }
+
+    private String encrypt(SecretKey key, byte[] salt, String input) throws Exception {
+        byte[] plain = input.getBytes(StandardCharsets.UTF_8);
+        byte[] output = seal(key, salt, plain, 0, plain.length);
 
         // 转换为Base58编码（比Base64更适合URL，且不包含容易混淆的字符）
-        return Base58.encode(buffer.array());
+        long t = Metrics.start();
+        String encoded = Base58.encode(output);
+        Metrics.stop(Metrics.Stage.BASE58, t);
+        return encoded;
+    }
+
+    // 加密 plain[off, off+len)，返回 salt + iv + 密文
+    private byte[] seal(SecretKey key, byte[] salt, byte[] plain, int off, int len) throws Exception {
+        if (compressionThreshold >= 0) {
+            // 标志字节 + 原文或压缩数据
+            long t = Metrics.start();
+            plain = PayloadCompression.pack(plain, off, len, compressionThreshold);
+            off = 0;
+            len = plain.length;
+            Metrics.stop(Metrics.Stage.COMPRESS, t);
+        }
+
+        // 输出布局：salt + iv + 密文，直接在同一个数组中生成，不再单独分配IV和密文
+        byte[] output = new byte[salt.length + IV_LENGTH + len + GCM_TAG_LENGTH / 8];
+        System.arraycopy(salt, 0, output, 0, salt.length);
+
+        // 生成随机IV（来自当前线程的缓冲随机源）
+        RandomSource.secure().nextBytes(output, salt.length, IV_LENGTH);
+
+        // 初始化加密器（复用当前线程的Cipher）
+        Cipher cipher = CryptoContext.get().gcmCipher();
+        GCMParameterSpec gcmSpec = new GCMParameterSpec(GCM_TAG_LENGTH, output, salt.length, IV_LENGTH);
+        cipher.init(Cipher.ENCRYPT_MODE, key, gcmSpec);
+
+        // 添加关联数据（salt，压缩格式再加压缩标记）以增加安全性
+        cipher.updateAAD(salt);
+        if (compressionThreshold >= 0) {
+            cipher.updateAAD(COMPRESSED_AAD);
+        }
+
+        // 加密数据
+        long t = Metrics.start();
+        cipher.doFinal(plain, off, len, output, salt.length + IV_LENGTH);
+        Metrics.stop(Metrics.Stage.AES_GCM, t);
+        return output;
     }
 
     /**
@@ -62,178 +226,277 @@ public class SecureStringConverter {
      */
     public String revert(String encrypted) throws Exception {
         // 解码Base58
+        long t = Metrics.start();
         byte[] allBytes = Base58.decode(encrypted);
+        Metrics.stop(Metrics.Stage.BASE58, t);
 
-        // 提取salt、iv和密文
-        ByteBuffer buffer = ByteBuffer.wrap(allBytes);
-        byte[] salt = new byte[SALT_LENGTH];
-        byte[] iv = new byte[IV_LENGTH];
-        byte[] cipherText = new byte[allBytes.length - SALT_LENGTH - IV_LENGTH];
+        if (allBytes.length < HEADER_LENGTH + TAG_BYTES) {
+            throw new IllegalArgumentException("Input too short: " + allBytes.length + " bytes");
+        }
 
-        buffer.get(salt);
-        buffer.get(iv);
-        buffer.get(cipherText);
+        // 提取salt，解密 iv + 密文
+        byte[] salt = Arrays.copyOf(allBytes, SALT_LENGTH);
+        byte[] decryptedBytes = open(allBytes, allBytes.length, salt);
+        return new String(decryptedBytes, StandardCharsets.UTF_8);
+    }
 
-        // 从密码派生密钥
+    /**
+     * 解密 raw[0, rawLength) 中的 salt + iv + 密文，返回原文。
+     * 启用压缩时先按压缩格式认证，认证失败再按旧格式认证，因此两种令牌都能还原；
+     * 不启用压缩时只接受旧格式，压缩令牌认证失败。
+     */
+    private byte[] open(byte[] raw, int rawLength, byte[] salt) throws Exception {
         SecretKey key = deriveKey(password, salt);
+        if (compressionThreshold < 0) {
+            return decrypt(key, raw, rawLength, salt, false);
+        }
+        byte[] packed;
+        try {
+            packed = decrypt(key, raw, rawLength, salt, true);
+        } catch (AEADBadTagException e) {
+            // 旧格式令牌：没有标志字节
+            return decrypt(key, raw, rawLength, salt, false);
+        }
+        long t = Metrics.start();
+        byte[] plain = PayloadCompression.unpack(packed);
+        Metrics.stop(Metrics.Stage.COMPRESS, t);
+        return plain;
+    }
 
-        // 初始化解密器
-        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
-        GCMParameterSpec gcmSpec = new GCMParameterSpec(GCM_TAG_LENGTH, iv);
-        cipher.init(Cipher.DECRYPT_MODE, key, gcmSpec);
-
-        // 添加关联数据（salt）
+    private byte[] decrypt(SecretKey key, byte[] raw, int rawLength, byte[] salt, boolean compressed) throws Exception {
+        // 初始化解密器（复用当前线程的Cipher）
+        Cipher cipher = CryptoContext.get().gcmCipher();
+        cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(GCM_TAG_LENGTH, raw, SALT_LENGTH, IV_LENGTH));
         cipher.updateAAD(salt);
-
-        // 解密
-        byte[] decryptedBytes = cipher.doFinal(cipherText);
-        return new String(decryptedBytes, StandardCharsets.UTF_8);
+        if (compressed) {
+            cipher.updateAAD(COMPRESSED_AAD);
+        }
+        long t = Metrics.start();
+        byte[] plain = cipher.doFinal(raw, HEADER_LENGTH, rawLength - HEADER_LENGTH);
+        Metrics.stop(Metrics.Stage.AES_GCM, t);
+        return plain;
     }
 
     /**
-     * 使用PBKDF2派生密钥
+     * {@link #convert(byte[], int, int, byte[], int)} 输出的最大字节数（含压缩标志字节）
      */
-    private SecretKey deriveKey(String password, byte[] salt) throws Exception {
-        SecretKeyFactory factory = SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256");
-        PBEKeySpec spec = new PBEKeySpec(
-                password.toCharArray(),
-                salt,
-                ITERATION_COUNT,
-                KEY_LENGTH
-        );
-        byte[] keyBytes = factory.generateSecret(spec).getEncoded();
-        return new SecretKeySpec(keyBytes, "AES");
+    public static int maxTokenLength(int inputLength) {
+        return Base58.maxEncodedLength(HEADER_LENGTH + 1 + inputLength + TAG_BYTES);
     }
 
     /**
-     * 生成随机字节
+     * 字节版本的 {@link #convert(String)}：UTF-8 原文 src[off, off+len) 加密后，Base58 令牌以 ASCII 字节写入 dst。
+     * 与字符串接口生成相同格式的令牌，但不经过 String 编解码。
+     *
+     * @param dst 至少需要 {@link #maxTokenLength(int)} 字节
+     * @return 写入 dst 的字节数
      */
-    private byte[] generateRandomBytes(int length) {
-        byte[] bytes = new byte[length];
-        new SecureRandom().nextBytes(bytes);
-        return bytes;
+    public int convert(byte[] src, int off, int len, byte[] dst, int dstOff) throws Exception {
+        byte[] salt = generateRandomBytes(SALT_LENGTH);
+        SecretKey key = deriveKey(password, salt);
+        byte[] output = seal(key, salt, src, off, len);
+
+        long t = Metrics.start();
+        int written = Base58.encode(output, 0, output.length, dst, dstOff);
+        Metrics.stop(Metrics.Stage.BASE58, t);
+        return written;
     }
 
     /**
-     * Base58编码实现（比Base64更适合URL，且避免混淆字符）
+     * 字节版本的 {@link #revert(String)}：ASCII 令牌 src[off, off+len) 还原为 UTF-8 原文写入 dst
+     *
+     * @param dst 不启用压缩时原文不超过 len 字节；启用压缩时原文可能比令牌长，dst 不够时抛出 IllegalArgumentException
+     * @return 写入 dst 的字节数
      */
-    private static class Base58 {
-        private static final char[] ALPHABET =
-                "123456789ABCDEFGHJKLMNPQRSTUVWXYZabcdefghijkmnopqrstuvwxyz".toCharArray();
-        private static final int[] INDEXES = new int[128];
-
-        static {
-            for (int i = 0; i < INDEXES.length; i++) {
-                INDEXES[i] = -1;
-            }
-            for (int i = 0; i < ALPHABET.length; i++) {
-                INDEXES[ALPHABET[i]] = i;
-            }
+    public int revert(byte[] src, int off, int len, byte[] dst, int dstOff) throws Exception {
+        byte[][] scratch = SCRATCH.get();
+        byte[] raw = scratch[2];
+        int maxRaw = Base58.maxDecodedLength(len);
+        if (raw.length < maxRaw) {
+            raw = new byte[Math.max(maxRaw, raw.length * 2)];
+            scratch[2] = raw;
+        }
+        long t = Metrics.start();
+        int rawLength = Base58.decode(src, off, len, raw, 0);
+        Metrics.stop(Metrics.Stage.BASE58, t);
+        int length = rawLength - HEADER_LENGTH - TAG_BYTES;
+        if (length < 0) {
+            throw new IllegalArgumentException("Input too short: " + rawLength + " bytes");
         }
 
-        public static String encode(byte[] input) {
-            if (input.length == 0) {
-                return "";
-            }
-
-            // 计算前导零
-            int zeros = 0;
-            while (zeros < input.length && input[zeros] == 0) {
-                zeros++;
+        byte[] salt = scratch[0];
+        System.arraycopy(raw, 0, salt, 0, SALT_LENGTH);
+        if (compressionThreshold < 0) {
+            // 不压缩：直接解密到 dst，不经过中间数组
+            if (dst.length - dstOff < length) {
+                throw new IllegalArgumentException("Destination buffer too small, need " + length + " bytes");
             }
+            SecretKey key = deriveKey(password, salt);
+            Cipher cipher = CryptoContext.get().gcmCipher();
+            cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(GCM_TAG_LENGTH, raw, SALT_LENGTH, IV_LENGTH));
+            cipher.updateAAD(salt);
+            t = Metrics.start();
+            int written = cipher.doFinal(raw, HEADER_LENGTH, rawLength - HEADER_LENGTH, dst, dstOff);
+            Metrics.stop(Metrics.Stage.AES_GCM, t);
+            return written;
+        }
+        byte[] plain = open(raw, rawLength, salt);
+        if (dst.length - dstOff < plain.length) {
+            throw new IllegalArgumentException("Destination buffer too small, need " + plain.length + " bytes");
+        }
+        System.arraycopy(plain, 0, dst, dstOff, plain.length);
+        return plain.length;
+    }
 
-            // 复制输入数组并转换为Base58
-            byte[] temp = new byte[input.length * 2];
-            int j = temp.length;
-
-            int startAt = zeros;
-            while (startAt < input.length) {
-                byte mod = divmod58(input, startAt);
-                if (input[startAt] == 0) {
-                    startAt++;
-                }
-                temp[--j] = (byte) ALPHABET[mod];
-            }
+    /**
+     * {@link #convert(ByteBuffer, ByteBuffer)} 输出的最大字节数
+     */
+    public static int maxConvertedLength(int inputLength) {
+        return HEADER_LENGTH + inputLength + TAG_BYTES;
+    }
 
-            while (j < temp.length && temp[j] == ALPHABET[0]) {
-                ++j;
-            }
+    /**
+     * 二进制加密：把 src 剩余的字节加密，salt + iv + 密文 直接写入 dst（不做Base58编码）。
+     * 适用于堆外（direct）缓冲区，中间不经过 String 或 byte[] 拷贝；两者的 position 都会前移。
+     * 加密失败时抛出异常，src 和 dst 的 position 保持不变。
+     *
+     * @return 写入 dst 的字节数
+     */
+    public int convert(ByteBuffer src, ByteBuffer dst) throws Exception {
+        int length = maxConvertedLength(src.remaining());
+        if (dst.remaining() < length) {
+            throw new IllegalArgumentException("Destination buffer too small, need " + length + " bytes");
+        }
+        byte[][] scratch = SCRATCH.get();
+        byte[] salt = scratch[0];
+        byte[] iv = scratch[1];
+        RandomSource random = RandomSource.secure();
+        random.nextBytes(salt);
+        random.nextBytes(iv);
+        SecretKey key = deriveKey(password, salt);
 
-            while (--zeros >= 0) {
-                temp[--j] = (byte) ALPHABET[0];
-            }
+        Cipher cipher = CryptoContext.get().gcmCipher();
+        cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(GCM_TAG_LENGTH, iv));
+        cipher.updateAAD(salt);
 
-            byte[] output = new byte[temp.length - j];
-            System.arraycopy(temp, j, output, 0, output.length);
-            return new String(output);
+        int srcStart = src.position();
+        int start = dst.position();
+        dst.put(salt).put(iv);
+        long t = Metrics.start();
+        try {
+            cipher.doFinal(src, dst);
+        } catch (Exception e) {
+            src.position(srcStart);
+            dst.position(start);
+            throw e;
         }
+        Metrics.stop(Metrics.Stage.AES_GCM, t);
+        return dst.position() - start;
+    }
 
-        public static byte[] decode(String input) {
-            if (input.length() == 0) {
-                return new byte[0];
-            }
+    /**
+     * 二进制解密 {@link #convert(ByteBuffer, ByteBuffer)} 的输出，原文写入 dst；两者的 position 都会前移。
+     * 认证失败时抛出异常，src 和 dst 保持不变。
+     *
+     * @return 写入 dst 的字节数
+     */
+    public int revert(ByteBuffer src, ByteBuffer dst) throws Exception {
+        int length = src.remaining() - HEADER_LENGTH - TAG_BYTES;
+        if (length < 0) {
+            throw new IllegalArgumentException("Input too short: " + src.remaining() + " bytes");
+        }
+        if (dst.remaining() < length) {
+            throw new IllegalArgumentException("Destination buffer too small, need " + length + " bytes");
+        }
+        byte[][] scratch = SCRATCH.get();
+        byte[] salt = scratch[0];
+        byte[] iv = scratch[1];
+        int start = src.position();
+        src.get(salt).get(iv);
+        try {
+            SecretKey key = deriveKey(password, salt);
+            Cipher cipher = CryptoContext.get().gcmCipher();
+            cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(GCM_TAG_LENGTH, iv));
+            cipher.updateAAD(salt);
+            long t = Metrics.start();
+            int written = cipher.doFinal(src, dst);
+            Metrics.stop(Metrics.Stage.AES_GCM, t);
+            return written;
+        } catch (Exception e) {
+            src.position(start);
+            throw e;
+        }
+    }
 
-            byte[] input58 = new byte[input.length()];
-            for (int i = 0; i < input.length(); i++) {
-                char c = input.charAt(i);
-                int digit58 = -1;
-                if (c >= 0 && c < 128) {
-                    digit58 = INDEXES[c];
-                }
-                if (digit58 < 0) {
-                    throw new RuntimeException("Invalid Base58 character: " + c);
-                }
-                input58[i] = (byte) digit58;
-            }
+    /**
+     * 流式加密：按固定大小分段做AES-GCM，内存占用与输入大小无关
+     */
+    public void convert(InputStream in, OutputStream out) throws Exception {
+        convert(in, out, SegmentedGcmStream.DEFAULT_SEGMENT_SIZE, null, 1);
+    }
 
-            // 计算结果长度
-            int zeros = 0;
-            while (zeros < input58.length && input58[zeros] == 0) {
-                zeros++;
-            }
+    /**
+     * 流式加密，各分段交给 executor 并行处理（executor 为 null 时在当前线程处理）
+     *
+     * @param segmentSize 每段明文字节数
+     * @param parallelism 同时处理的分段数
+     */
+    public void convert(InputStream in, OutputStream out, int segmentSize,
+                        ExecutorService executor, int parallelism) throws Exception {
+        SegmentedGcmStream.encrypt(in, out, salt -> deriveKey(password, salt), segmentSize, executor, parallelism);
+    }
 
-            byte[] temp = new byte[input.length()];
-            int j = temp.length;
+    /**
+     * 流式解密 {@link #convert(InputStream, OutputStream)} 的输出；流被截断或篡改时抛出异常
+     */
+    public void revert(InputStream in, OutputStream out) throws Exception {
+        revert(in, out, null, 1);
+    }
 
-            int startAt = zeros;
-            while (startAt < input58.length) {
-                byte mod = divmod256(input58, startAt);
-                if (input58[startAt] == 0) {
-                    startAt++;
-                }
-                temp[--j] = mod;
-            }
+    /**
+     * 流式解密，各分段交给 executor 并行处理（executor 为 null 时在当前线程处理）
+     */
+    public void revert(InputStream in, OutputStream out, ExecutorService executor, int parallelism) throws Exception {
+        SegmentedGcmStream.decrypt(in, out, salt -> deriveKey(password, salt), executor, parallelism);
+    }
 
-            while (j < temp.length && temp[j] == 0) {
-                ++j;
-            }
+    /**
+     * 按给定盐值派生的密钥（供二进制文件等共享盐值的格式使用）
+     */
+    SecretKey keyFor(byte[] salt) throws Exception {
+        return deriveKey(password, salt);
+    }
 
-            byte[] output = new byte[temp.length - j + zeros];
-            System.arraycopy(temp, j, output, zeros, temp.length - j);
-            return output;
-        }
+    /**
+     * 派生密钥，相同的(password, salt)直接命中缓存
+     */
+    private SecretKey deriveKey(String password, byte[] salt) throws Exception {
+        long t = Metrics.start();
+        SecretKey key = keyCache.get(password, salt, SecureStringConverter::pbkdf2);
+        Metrics.stop(Metrics.Stage.DERIVE_KEY, t);
+        return key;
+    }
 
-        private static byte divmod58(byte[] number, int startAt) {
-            int remainder = 0;
-            for (int i = startAt; i < number.length; i++) {
-                int digit256 = number[i] & 0xFF;
-                int temp = remainder * 256 + digit256;
-                number[i] = (byte) (temp / 58);
-                remainder = temp % 58;
-            }
-            return (byte) remainder;
-        }
+    /**
+     * 使用PBKDF2派生密钥
+     */
+    private static SecretKey pbkdf2(String password, byte[] salt) throws Exception {
+        SecretKeyFactory factory = CryptoContext.get().pbkdf2Factory();
+        PBEKeySpec spec = new PBEKeySpec(
+                password.toCharArray(),
+                salt,
+                ITERATION_COUNT,
+                KEY_LENGTH
+        );
+        byte[] keyBytes = factory.generateSecret(spec).getEncoded();
+        return new SecretKeySpec(keyBytes, "AES");
+    }
 
-        private static byte divmod256(byte[] number58, int startAt) {
-            int remainder = 0;
-            for (int i = startAt; i < number58.length; i++) {
-                int digit58 = number58[i] & 0xFF;
-                int temp = remainder * 58 + digit58;
-                number58[i] = (byte) (temp / 256);
-                remainder = temp % 256;
-            }
-            return (byte) remainder;
-        }
+    /**
+     * 生成随机字节
+     */
+    private byte[] generateRandomBytes(int length) {
+        return RandomSource.secure().bytes(length);
     }
 
     // 测试方法
@@ -261,6 +524,51 @@ public class SecureStringConverter {
                 System.out.println();
             }
 
+            // 流式模式
+            byte[] large = "Mixed content: ABC123测试\n".repeat(10_000).getBytes(StandardCharsets.UTF_8);
+            ByteArrayOutputStream sealed = new ByteArrayOutputStream();
+            converter.convert(new ByteArrayInputStream(large), sealed);
+            ByteArrayOutputStream opened = new ByteArrayOutputStream();
+            converter.revert(new ByteArrayInputStream(sealed.toByteArray()), opened);
+            System.out.println("流式验证: " + Arrays.equals(large, opened.toByteArray()));
+
+            // 二进制 + 堆外缓冲区
+            ByteBuffer plainBuffer = ByteBuffer.allocateDirect(64);
+            plainBuffer.put("Hello, World!".getBytes(StandardCharsets.UTF_8)).flip();
+            ByteBuffer sealedBuffer = ByteBuffer.allocateDirect(maxConvertedLength(64));
+            converter.convert(plainBuffer, sealedBuffer);
+            sealedBuffer.flip();
+            ByteBuffer openedBuffer = ByteBuffer.allocateDirect(64);
+            converter.revert(sealedBuffer, openedBuffer);
+            openedBuffer.flip();
+            byte[] openedBytes = new byte[openedBuffer.remaining()];
+            openedBuffer.get(openedBytes);
+            System.out.println("二进制验证: " + "Hello, World!".equals(new String(openedBytes, StandardCharsets.UTF_8))
+                    + " (" + sealedBuffer.limit() + " 字节)");
+
+            // 加密前压缩：重复度高的 JSON 记录
+            SecureStringConverter compressing = new SecureStringConverter(
+                    "your_strong_password", converter.getKeyCache(), 256);
+            String json = "{\"id\":42,\"tags\":[\"alpha\",\"beta\"],\"note\":\"测试\"},".repeat(100);
+            String plainToken = converter.convert(json);
+            String packedToken = compressing.convert(json);
+            System.out.println("压缩验证: " + json.equals(compressing.revert(packedToken))
+                    + " (" + plainToken.length() + " -> " + packedToken.length() + " 字符)");
+            // 压缩格式绑定在 AAD 中：两种实例混用时不会返回乱码
+            System.out.println("压缩实例还原旧令牌: " + json.equals(compressing.revert(plainToken)));
+            try {
+                converter.revert(packedToken);
+                System.out.println("不压缩实例还原压缩令牌: 未报错");
+            } catch (AEADBadTagException e) {
+                System.out.println("不压缩实例还原压缩令牌: 认证失败");
+            }
+
+            DerivedKeyCache cache = converter.getKeyCache();
+            System.out.println("密钥缓存命中: " + cache.hitCount() + ", 未命中: " + cache.missCount());
+            if (Metrics.isEnabled()) {
+                System.out.print(Metrics.report());
+            }
+
         } catch (Exception e) {
             e.printStackTrace();
         }
@@ -0,0 +1,220 @@
+package convertor;
+
+import javax.crypto.AEADBadTagException;
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Segmented AES-GCM stream format used by the streaming mode of {@link SecureStringConverter}.
+ * <p>
+ * Layout: {@code version(1) | salt(16) | noncePrefix(7) | segmentSize(4)} followed by
+ * segments of {@code segmentSize} plaintext bytes, each encrypted on its own with a
+ * 16-byte tag. Segment {@code i} uses the nonce {@code noncePrefix | i (4 bytes) | last (1 byte)}
+ * and the header as associated data, so segments can not be reordered, dropped or
+ * cut off: a truncated stream fails on its (no longer) last segment. Segments are
+ * independent, so they can be encrypted and decrypted in parallel.
+ * <p>
+ * Plaintext segments are written as soon as they authenticate; a truncated or
+ * tampered stream is reported by an exception at the point of failure.
+ */
+final class SegmentedGcmStream {
+    static final int DEFAULT_SEGMENT_SIZE = 64 * 1024;
+    // Upper bound accepted when reading a header, so a corrupt header can not force a huge buffer
+    static final int MAX_SEGMENT_SIZE = 16 * 1024 * 1024;
+
+    private static final byte VERSION = 1;
+    static final int SALT_LENGTH = 16;
+    private static final int NONCE_PREFIX_LENGTH = 7;
+    static final int HEADER_LENGTH = 1 + SALT_LENGTH + NONCE_PREFIX_LENGTH + 4;
+    private static final int TAG_BYTES = 16;
+    private static final int GCM_TAG_LENGTH = 128;
+
+    /**
+     * Derives the key for the salt found in (or generated for) the header
+     */
+    interface KeySource {
+        SecretKey keyFor(byte[] salt) throws Exception;
+    }
+
+    private SegmentedGcmStream() {
+    }
+
+    /**
+     * Encrypt {@code in} to {@code out}.
+     *
+     * @param executor    runs segment encryption; {@code null} encrypts on the calling thread
+     * @param parallelism number of segments in flight when an executor is used
+     */
+    static void encrypt(InputStream in, OutputStream out, KeySource keys, int segmentSize,
+                        ExecutorService executor, int parallelism) throws Exception {
+        if (segmentSize < 1 || segmentSize > MAX_SEGMENT_SIZE) {
+            throw new IllegalArgumentException("segmentSize must be between 1 and " + MAX_SEGMENT_SIZE);
+        }
+        CryptoContext ctx = CryptoContext.get();
+        byte[] salt = ctx.randomBytes(SALT_LENGTH);
+        byte[] header = ByteBuffer.allocate(HEADER_LENGTH)
+                .put(VERSION)
+                .put(salt)
+                .put(ctx.randomBytes(NONCE_PREFIX_LENGTH))
+                .putInt(segmentSize)
+                .array();
+        SecretKey key = keys.keyFor(salt);
+        out.write(header);
+
+        PushbackInputStream source = new PushbackInputStream(in, 1);
+        Deque<Future<byte[]>> pending = new ArrayDeque<>();
+        int window = executor == null ? 1 : Math.max(1, parallelism * 2);
+        try {
+            long index = 0;
+            boolean last = false;
+            while (!last) {
+                byte[] plain = source.readNBytes(segmentSize);
+                last = plain.length < segmentSize || isAtEnd(source);
+                checkIndex(index);
+                int segment = (int) index++;
+                boolean isLast = last;
+                Future<byte[]> sealed = submit(executor,
+                        () -> seal(key, header, segment, isLast, plain));
+                pending.addLast(sealed);
+                while (pending.size() >= window) {
+                    out.write(await(pending.removeFirst()));
+                }
+            }
+            while (!pending.isEmpty()) {
+                out.write(await(pending.removeFirst()));
+            }
+        } finally {
+            pending.forEach(f -> f.cancel(true));
+        }
+        out.flush();
+    }
+
+    /**
+     * Decrypt a stream written by {@link #encrypt} from {@code in} to {@code out}
+     */
+    static void decrypt(InputStream in, OutputStream out, KeySource keys,
+                        ExecutorService executor, int parallelism) throws Exception {
+        byte[] header = in.readNBytes(HEADER_LENGTH);
+        if (header.length < HEADER_LENGTH) {
+            throw new EOFException("Stream is too short for a header");
+        }
+        ByteBuffer fields = ByteBuffer.wrap(header);
+        if (fields.get() != VERSION) {
+            throw new IOException("Unsupported stream version: " + header[0]);
+        }
+        byte[] salt = new byte[SALT_LENGTH];
+        fields.get(salt);
+        fields.position(fields.position() + NONCE_PREFIX_LENGTH);
+        int segmentSize = fields.getInt();
+        if (segmentSize < 1 || segmentSize > MAX_SEGMENT_SIZE) {
+            throw new IOException("Invalid segment size: " + segmentSize);
+        }
+        SecretKey key = keys.keyFor(salt);
+
+        PushbackInputStream source = new PushbackInputStream(in, 1);
+        Deque<Future<byte[]>> pending = new ArrayDeque<>();
+        int window = executor == null ? 1 : Math.max(1, parallelism * 2);
+        try {
+            long index = 0;
+            boolean last = false;
+            while (!last) {
+                byte[] sealed = source.readNBytes(segmentSize + TAG_BYTES);
+                last = sealed.length < segmentSize + TAG_BYTES || isAtEnd(source);
+                if (sealed.length < TAG_BYTES) {
+                    throw new AEADBadTagException("Stream truncated");
+                }
+                checkIndex(index);
+                int segment = (int) index++;
+                boolean isLast = last;
+                pending.addLast(submit(executor, () -> open(key, header, segment, isLast, sealed)));
+                while (pending.size() >= window) {
+                    out.write(await(pending.removeFirst()));
+                }
+            }
+            while (!pending.isEmpty()) {
+                out.write(await(pending.removeFirst()));
+            }
+        } finally {
+            pending.forEach(f -> f.cancel(true));
+        }
+        out.flush();
+    }
+
+    private static byte[] seal(SecretKey key, byte[] header, int segment, boolean last, byte[] plain)
+            throws Exception {
+        Cipher cipher = CryptoContext.get().gcmCipher();
+        cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(GCM_TAG_LENGTH, nonce(header, segment, last)));
+        cipher.updateAAD(header);
+        return cipher.doFinal(plain);
+    }
+
+    private static byte[] open(SecretKey key, byte[] header, int segment, boolean last, byte[] sealed)
+            throws Exception {
+        Cipher cipher = CryptoContext.get().gcmCipher();
+        cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(GCM_TAG_LENGTH, nonce(header, segment, last)));
+        cipher.updateAAD(header);
+        return cipher.doFinal(sealed);
+    }
+
+    private static byte[] nonce(byte[] header, int segment, boolean last) {
+        byte[] nonce = new byte[NONCE_PREFIX_LENGTH + 5];
+        System.arraycopy(header, 1 + SALT_LENGTH, nonce, 0, NONCE_PREFIX_LENGTH);
+        nonce[7] = (byte) (segment >>> 24);
+        nonce[8] = (byte) (segment >>> 16);
+        nonce[9] = (byte) (segment >>> 8);
+        nonce[10] = (byte) segment;
+        nonce[11] = (byte) (last ? 1 : 0);
+        return nonce;
+    }
+
+    private static boolean isAtEnd(PushbackInputStream in) throws IOException {
+        int next = in.read();
+        if (next < 0) {
+            return true;
+        }
+        in.unread(next);
+        return false;
+    }
+
+    private static void checkIndex(long index) {
+        if (index > 0xFFFFFFFFL) {
+            throw new IllegalStateException("Stream has too many segments");
+        }
+    }
+
+    private interface Task {
+        byte[] run() throws Exception;
+    }
+
+    private static Future<byte[]> submit(ExecutorService executor, Task task) {
+        if (executor == null) {
+            try {
+                return CompletableFuture.completedFuture(task.run());
+            } catch (Exception e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        return executor.submit(task::run);
+    }
+
+    private static byte[] await(Future<byte[]> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        }
+    }
+}
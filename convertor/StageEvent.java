@@ -0,0 +1,27 @@
+package convertor;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event emitted per measured stage call when {@code -Dconvertor.metrics.jfr=true}
+ */
+@Name("convertor.Stage")
+@Label("Conversion Stage")
+@Category("Convertor")
+@Description("Latency of one conversion pipeline stage")
+@StackTrace(false)
+@Enabled(false)
+class StageEvent extends jdk.jfr.Event {
+    @Label("Stage")
+    String stage;
+
+    @Label("Latency")
+    @Timespan(Timespan.NANOSECONDS)
+    long latency;
+}
@@ -1,14 +1,99 @@
 package convertor;
 
+import java.lang.reflect.Constructor;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
 import java.util.Random;
 
 public class StringCipher {
-    private final int[] shuffleMap;
+    private static final byte[] HEX_DIGITS = "0123456789ABCDEF".getBytes(StandardCharsets.US_ASCII);
+    // 十六进制字符 -> 数值，非法字符为 -1
+    private static final byte[] HEX_VALUES = new byte[128];
+
+    static {
+        Arrays.fill(HEX_VALUES, (byte) -1);
+        for (int i = 0; i < 16; i++) {
+            HEX_VALUES[HEX_DIGITS[i]] = (byte) i;
+            HEX_VALUES[Character.toLowerCase(HEX_DIGITS[i])] = (byte) i;
+        }
+    }
+
+    // 向量化实现（需要 --add-modules jdk.incubator.vector），不可用时为 null；-Dconvertor.cipher.vector=false 可关闭
+    private static final Constructor<?> VECTOR_KERNEL = loadVectorKernel();
+
+    /**
+     * 批量 置换 + 十六进制 的实现；标量版本总是可用
+     */
+    interface Kernel {
+        void encrypt(byte[] src, int off, int len, byte[] dst, int dstOff);
+
+        void decrypt(byte[] src, int off, int len, byte[] dst, int dstOff);
+    }
+
+    private final byte[] shuffleMap;
+    private final byte[] reverseMap;
+    private final Kernel kernel;
 
     public StringCipher(String password) {
-        this.shuffleMap = generateShuffleMap(password);
+        this(password, true);
+    }
+
+    /**
+     * @param vector 为 false 时固定使用标量实现（用于对比测试）
+     */
+    StringCipher(String password, boolean vector) {
+        int[] map = generateShuffleMap(password);
+        this.shuffleMap = new byte[256];
+        this.reverseMap = new byte[256];
+        for (int i = 0; i < 256; i++) {
+            shuffleMap[i] = (byte) map[i];
+            reverseMap[map[i]] = (byte) i;
+        }
+        this.kernel = vector ? createKernel(new ScalarKernel()) : new ScalarKernel();
+    }
+
+    private static Constructor<?> loadVectorKernel() {
+        if (!Boolean.parseBoolean(System.getProperty("convertor.cipher.vector", "true"))) {
+            return null;
+        }
+        try {
+            // 通过反射加载，模块缺失时只会在这里失败
+            Class<?> type = Class.forName("convertor.VectorCipherKernel");
+            if (!(Boolean) type.getDeclaredMethod("supported").invoke(null)) {
+                return null;
+            }
+            return type.getDeclaredConstructor(byte[].class, byte[].class, Kernel.class);
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+
+    private Kernel createKernel(Kernel scalar) {
+        if (VECTOR_KERNEL == null) {
+            return scalar;
+        }
+        try {
+            return (Kernel) VECTOR_KERNEL.newInstance(shuffleMap, reverseMap, scalar);
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return scalar;
+        }
+    }
+
+    /**
+     * 当前使用的实现，例如 "vector Species[byte, 64, S_512_BIT]" 或 "scalar"
+     */
+    public static String engine() {
+        if (VECTOR_KERNEL == null) {
+            return "scalar";
+        }
+        try {
+            return "vector " + VECTOR_KERNEL.getDeclaringClass().getDeclaredMethod("describe").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return "vector";
+        }
     }
 
     private int[] generateShuffleMap(String password) {
@@ -16,7 +101,7 @@ public class StringCipher {
         long seed = 0;
         try {
             MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            byte[] hash = digest.digest(password.getBytes());
+            byte[] hash = digest.digest(password.getBytes(StandardCharsets.UTF_8));
             for (int i = 0; i < 8; i++) {
                 seed = (seed << 8) | (hash[i] & 0xff);
             }
@@ -48,54 +133,132 @@ public class StringCipher {
             return text;
         }
 
-        byte[] bytes = text.getBytes();
-        byte[] result = new byte[bytes.length];
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        byte[] hex = new byte[bytes.length * 2];
+        encrypt(bytes, 0, bytes.length, hex, 0);
+        return new String(hex, StandardCharsets.ISO_8859_1);
+    }
 
-        for (int i = 0; i < bytes.length; i++) {
-            int value = bytes[i] & 0xFF;
-            result[i] = (byte) shuffleMap[value];
+    public String decrypt(String encrypted) {
+        if (encrypted == null || encrypted.isEmpty()) {
+            return encrypted;
         }
 
-        // 转换为十六进制字符串
-        StringBuilder hex = new StringBuilder();
-        for (byte b : result) {
-            hex.append(String.format("%02X", b & 0xFF));
+        int len = encrypted.length();
+        if ((len & 1) != 0) {
+            throw new IllegalArgumentException("Hex string must have an even length");
         }
+        byte[] decrypted = new byte[len / 2];
+        for (int i = 0, j = 0; i < len; i += 2, j++) {
+            int value = (hexValue(encrypted.charAt(i)) << 4) | hexValue(encrypted.charAt(i + 1));
+            decrypted[j] = reverseMap[value];
+        }
+        return new String(decrypted, StandardCharsets.UTF_8);
+    }
 
-        return hex.toString();
+    /**
+     * 加密 src[off, off+len)，以大写十六进制ASCII写入 dst
+     *
+     * @return 写入 dst 的字节数（2 * len）
+     */
+    public int encrypt(byte[] src, int off, int len, byte[] dst, int dstOff) {
+        kernel.encrypt(src, off, len, dst, dstOff);
+        return len * 2;
     }
 
-    public String decrypt(String encrypted) {
-        if (encrypted == null || encrypted.isEmpty()) {
-            return encrypted;
+    /**
+     * 解密十六进制ASCII src[off, off+len)，原始字节写入 dst
+     *
+     * @return 写入 dst 的字节数（len / 2）
+     */
+    public int decrypt(byte[] src, int off, int len, byte[] dst, int dstOff) {
+        if ((len & 1) != 0) {
+            throw new IllegalArgumentException("Hex input must have an even length");
         }
+        kernel.decrypt(src, off, len, dst, dstOff);
+        return len / 2;
+    }
 
-        // 创建解密映射表
-        int[] reverseMap = new int[256];
-        for (int i = 0; i < 256; i++) {
-            reverseMap[shuffleMap[i]] = i;
+    /**
+     * 逐字节查表的标量实现
+     */
+    private final class ScalarKernel implements Kernel {
+        @Override
+        public void encrypt(byte[] src, int off, int len, byte[] dst, int dstOff) {
+            for (int i = 0; i < len; i++) {
+                int value = shuffleMap[src[off + i] & 0xFF] & 0xFF;
+                dst[dstOff++] = HEX_DIGITS[value >>> 4];
+                dst[dstOff++] = HEX_DIGITS[value & 0x0F];
+            }
         }
 
-        // 将十六进制字符串转回字节数组
-        int len = encrypted.length();
-        byte[] result = new byte[len / 2];
-        for (int i = 0; i < len; i += 2) {
-            result[i / 2] = (byte) Integer.parseInt(encrypted.substring(i, i + 2), 16);
+        @Override
+        public void decrypt(byte[] src, int off, int len, byte[] dst, int dstOff) {
+            for (int i = off, end = off + len; i < end; i += 2) {
+                int value = (hexValue(src[i]) << 4) | hexValue(src[i + 1]);
+                dst[dstOff++] = reverseMap[value];
+            }
         }
+    }
 
-        // 解密
-        byte[] decrypted = new byte[result.length];
-        for (int i = 0; i < result.length; i++) {
-            int value = result[i] & 0xFF;
-            decrypted[i] = (byte) reverseMap[value];
+    /**
+     * 加密 src 中剩余的全部字节，十六进制写入 dst；两者的 position 都会前移
+     */
+    public void encrypt(ByteBuffer src, ByteBuffer dst) {
+        int len = src.remaining();
+        if (dst.remaining() < len * 2) {
+            throw new IllegalArgumentException("Destination buffer too small");
         }
+        if (src.hasArray() && dst.hasArray()) {
+            int n = encrypt(src.array(), src.arrayOffset() + src.position(), len,
+                    dst.array(), dst.arrayOffset() + dst.position());
+            src.position(src.limit());
+            dst.position(dst.position() + n);
+            return;
+        }
+        while (src.hasRemaining()) {
+            int value = shuffleMap[src.get() & 0xFF] & 0xFF;
+            dst.put(HEX_DIGITS[value >>> 4]);
+            dst.put(HEX_DIGITS[value & 0x0F]);
+        }
+    }
+
+    /**
+     * 解密 src 中剩余的十六进制字节，原始字节写入 dst；两者的 position 都会前移
+     */
+    public void decrypt(ByteBuffer src, ByteBuffer dst) {
+        int len = src.remaining();
+        if ((len & 1) != 0) {
+            throw new IllegalArgumentException("Hex input must have an even length");
+        }
+        if (dst.remaining() < len / 2) {
+            throw new IllegalArgumentException("Destination buffer too small");
+        }
+        if (src.hasArray() && dst.hasArray()) {
+            int n = decrypt(src.array(), src.arrayOffset() + src.position(), len,
+                    dst.array(), dst.arrayOffset() + dst.position());
+            src.position(src.limit());
+            dst.position(dst.position() + n);
+            return;
+        }
+        while (src.hasRemaining()) {
+            int value = (hexValue(src.get()) << 4) | hexValue(src.get());
+            dst.put(reverseMap[value]);
+        }
+    }
 
-        return new String(decrypted);
+    private static int hexValue(int c) {
+        int value = c >= 0 && c < 128 ? HEX_VALUES[c] : -1;
+        if (value < 0) {
+            throw new IllegalArgumentException("Invalid hex character: " + (char) (c & 0xFFFF));
+        }
+        return value;
     }
 
     // 测试方法
     public static void main(String[] args) {
         StringCipher cipher = new StringCipher("my_secret_password");
+        System.out.println("Engine: " + engine());
 
         // 测试用例
         String[] testStrings = {
@@ -119,5 +282,26 @@ public class StringCipher {
             System.out.println("Verified: " + original.equals(decrypted));
             System.out.println();
         }
+
+        // 大数据量吞吐（日志脱敏的批量路径）
+        byte[] payload = new byte[1 << 20];
+        new Random(42).nextBytes(payload);
+        byte[] hex = new byte[payload.length * 2];
+        byte[] back = new byte[payload.length];
+        for (int round = 0; round < 5; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < 64; i++) {
+                cipher.encrypt(payload, 0, payload.length, hex, 0);
+            }
+            long encryptNanos = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int i = 0; i < 64; i++) {
+                cipher.decrypt(hex, 0, hex.length, back, 0);
+            }
+            long decryptNanos = System.nanoTime() - start;
+            System.out.printf("encrypt %.0f MB/s, decrypt %.0f MB/s, round trip ok: %b%n",
+                    64.0 * payload.length / encryptNanos * 1000, 64.0 * payload.length / decryptNanos * 1000,
+                    Arrays.equals(payload, back));
+        }
     }
-}
\ No newline at end of file
+}
@@ -1,9 +1,21 @@
 package convertor;
 
-import java.util.UUID;
+public class StringHandler {
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    private static final int RANDOM_LENGTH = 4;
 
+    // 字节分类：0 普通字节，1 空白（\s），2 '_'
+    private static final byte[] BYTE_CLASS = new byte[256];
 
-public class StringHandler {
+    static {
+        for (char c : new char[]{' ', '\t', '\n', 0x0B, '\f', '\r'}) {
+            BYTE_CLASS[c] = 1;
+        }
+        BYTE_CLASS['_'] = 2;
+    }
+
+    // Reused per thread so a call only allocates its result String
+    private static final ThreadLocal<char[]> BUFFER = ThreadLocal.withInitial(() -> new char[256]);
 
 
     public static void main(String[] args) {
@@ -13,46 +25,289 @@ public class StringHandler {
     }
 
     // 转换字符串
+    // 等价于 trim -> 空白序列替换为"_" -> 按"_"切分 -> 每段反转 -> 前后拼接随机串，但只遍历一次
     public static String transformString(String input) {
-        String sanitizedInput = input.trim().replaceAll("\\s+", "_");
+        long t = Metrics.start();
+        int start = 0;
+        int end = input.length();
+        while (start < end && input.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && input.charAt(end - 1) <= ' ') {
+            end--;
+        }
 
-        String[] segments = sanitizedInput.split("_");
-        StringBuilder result = new StringBuilder();
+        char[] buf = buffer(2 * (RANDOM_LENGTH + 1) + end - start);
+        int random = RandomSource.fast().nextInt();
+        int pos = writeHex(buf, 0, random >>> 16);
+        buf[pos++] = '_';
 
-        for (String segment : segments) {
-            result.append(new StringBuilder(segment).reverse()).append("_");
+        int segmentStart = pos;
+        for (int i = start; i < end; ) {
+            char c = input.charAt(i);
+            if (c == '_' || isWhitespace(c)) {
+                pos = closeSegment(buf, segmentStart, pos);
+                buf[pos++] = '_';
+                segmentStart = pos;
+                // 连续空白只产生一个"_"
+                if (c != '_') {
+                    while (++i < end && isWhitespace(input.charAt(i))) {
+                    }
+                    continue;
+                }
+            } else {
+                buf[pos++] = c;
+            }
+            i++;
         }
+        pos = closeSegment(buf, segmentStart, pos);
 
-        if (!result.isEmpty() && result.charAt(result.length() - 1) == '_') {
-            result.setLength(result.length() - 1);
+        // 末尾的空段会被 split 丢弃
+        while (pos > RANDOM_LENGTH + 1 && buf[pos - 1] == '_') {
+            pos--;
         }
 
-        String prefix = generateRandomString();
-        String suffix = generateRandomString();
+        buf[pos++] = '_';
+        pos = writeHex(buf, pos, random & 0xFFFF);
+        String result = new String(buf, 0, pos);
+        Metrics.stop(Metrics.Stage.TRANSFORM, t);
+        return result;
+    }
+
+    public static String reverse(String input) {
+        // 末尾的空段会被 split 丢弃
+        int end = input.length();
+        while (end > 0 && input.charAt(end - 1) == '_') {
+            end--;
+        }
+        int first = input.indexOf('_');
+        int last = end > 0 ? input.lastIndexOf('_', end - 1) : -1;
+        if (first < 0 || first >= last) {
+            throw new IllegalArgumentException("Input string must contain at least a prefix, content, and suffix.");
+        }
+
+        char[] buf = buffer(last - first - 1);
+        int pos = 0;
+        int segmentStart = 0;
+        for (int i = first + 1; i < last; i++) {
+            char c = input.charAt(i);
+            if (c == '_') {
+                pos = closeSegment(buf, segmentStart, pos);
+                buf[pos++] = ' ';
+                segmentStart = pos;
+            } else {
+                buf[pos++] = c;
+            }
+        }
+        pos = closeSegment(buf, segmentStart, pos);
 
-        // 拼接前缀、内容、后缀
-        return prefix + "_" + result.toString() + "_" + suffix;
+        int from = 0;
+        while (from < pos && buf[from] <= ' ') {
+            from++;
+        }
+        while (pos > from && buf[pos - 1] <= ' ') {
+            pos--;
+        }
+        return new String(buf, from, pos - from);
     }
 
-    private static String generateRandomString() {
-        return UUID.randomUUID().toString().substring(0, 4);
+    /**
+     * {@link #transformString(String)} 的字节版本：直接处理 UTF-8 字节 src[off, off+len)，结果写入 dst，不经过 String 编解码。
+     * 分隔符和空白都是 ASCII，不会出现在多字节序列中；段内按码点反转，多字节序列保持原字节顺序。
+     * 对合法的 UTF-8 输入，结果与 transformString 的 UTF-8 编码完全一致；不合法的字节各自作为一个单位处理。
+     *
+     * @param dst 至少需要 {@link #maxTransformedLength(int)} 字节
+     * @return 写入 dst 的字节数
+     */
+    public static int transformBytes(byte[] src, int off, int len, byte[] dst, int dstOff) {
+        long t = Metrics.start();
+        int start = off;
+        int end = off + len;
+        while (start < end && (src[start] & 0xFF) <= ' ') {
+            start++;
+        }
+        while (end > start && (src[end - 1] & 0xFF) <= ' ') {
+            end--;
+        }
+
+        int random = RandomSource.fast().nextInt();
+        int pos = writeHex(dst, dstOff, random >>> 16);
+        dst[pos++] = '_';
+
+        int segmentStart = pos;
+        // 当前段是否含非 ASCII 字节（负数）；纯 ASCII 段不需要修正多字节序列
+        int multiByte = 0;
+        for (int i = start; i < end; ) {
+            byte b = src[i];
+            int type = BYTE_CLASS[b & 0xFF];
+            if (type == 0) {
+                dst[pos++] = b;
+                multiByte |= b;
+                i++;
+                continue;
+            }
+            pos = closeSegment(dst, segmentStart, pos, multiByte < 0);
+            dst[pos++] = '_';
+            segmentStart = pos;
+            multiByte = 0;
+            i++;
+            // 连续空白只产生一个"_"
+            if (type == 1) {
+                while (i < end && BYTE_CLASS[src[i] & 0xFF] == 1) {
+                    i++;
+                }
+            }
+        }
+        pos = closeSegment(dst, segmentStart, pos, multiByte < 0);
+
+        // 末尾的空段会被 split 丢弃
+        while (pos > dstOff + RANDOM_LENGTH + 1 && dst[pos - 1] == '_') {
+            pos--;
+        }
+
+        dst[pos++] = '_';
+        pos = writeHex(dst, pos, random & 0xFFFF);
+        Metrics.stop(Metrics.Stage.TRANSFORM, t);
+        return pos - dstOff;
     }
 
-    public static String reverse(String input) {
-        String[] segments = input.split("_");
+    /**
+     * {@link #transformBytes} 输出的最大字节数
+     */
+    public static int maxTransformedLength(int inputLength) {
+        return 2 * (RANDOM_LENGTH + 1) + inputLength;
+    }
 
-        if (segments.length < 3) {
+    /**
+     * {@link #reverse(String)} 的字节版本，结果写入 dst（最多 len 字节）
+     *
+     * @return 写入 dst 的字节数
+     */
+    public static int reverseBytes(byte[] src, int off, int len, byte[] dst, int dstOff) {
+        // 末尾的空段会被 split 丢弃
+        int end = off + len;
+        while (end > off && src[end - 1] == '_') {
+            end--;
+        }
+        int first = indexOf(src, off, end, (byte) '_');
+        int last = end - 1;
+        while (last >= off && src[last] != '_') {
+            last--;
+        }
+        if (first < 0 || first >= last) {
             throw new IllegalArgumentException("Input string must contain at least a prefix, content, and suffix.");
         }
-        String[] contentSegments = new String[segments.length - 2];
-        System.arraycopy(segments, 1, contentSegments, 0, segments.length - 2);
 
-        StringBuilder result = new StringBuilder();
-        for (String segment : contentSegments) {
-            result.append(new StringBuilder(segment).reverse()).append(" ");
+        int pos = dstOff;
+        int segmentStart = pos;
+        int multiByte = 0;
+        for (int i = first + 1; i < last; i++) {
+            byte b = src[i];
+            if (b == '_') {
+                pos = closeSegment(dst, segmentStart, pos, multiByte < 0);
+                dst[pos++] = ' ';
+                segmentStart = pos;
+                multiByte = 0;
+            } else {
+                dst[pos++] = b;
+                multiByte |= b;
+            }
         }
+        pos = closeSegment(dst, segmentStart, pos, multiByte < 0);
 
-        return result.toString().trim();
+        int from = dstOff;
+        while (from < pos && (dst[from] & 0xFF) <= ' ') {
+            from++;
+        }
+        while (pos > from && (dst[pos - 1] & 0xFF) <= ' ') {
+            pos--;
+        }
+        if (from > dstOff) {
+            System.arraycopy(dst, from, dst, dstOff, pos - from);
+        }
+        return pos - from;
+    }
+
+    private static char[] buffer(int size) {
+        char[] buf = BUFFER.get();
+        if (buf.length < size) {
+            buf = new char[Math.max(size, buf.length * 2)];
+            BUFFER.set(buf);
+        }
+        return buf;
+    }
+
+    // \s 对应的字符
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == 0x0B || c == '\f' || c == '\r';
+    }
+
+    private static int indexOf(byte[] buf, int from, int to, byte value) {
+        for (int i = from; i < to; i++) {
+            if (buf[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // 就地按码点反转 buf[from, to)：先整体反转字节，再把每个多字节序列（续字节 + 首字节）翻回原顺序
+    private static int closeSegment(byte[] buf, int from, int to, boolean multiByte) {
+        reverse(buf, from, to);
+        for (int i = from; multiByte && i < to; i++) {
+            if ((buf[i] & 0xC0) != 0x80) {
+                continue;
+            }
+            int j = i;
+            while (j + 1 < to && j - i < 3 && (buf[j] & 0xC0) == 0x80) {
+                j++;
+            }
+            // 续字节后面必须是首字节，否则是孤立的续字节，保持单独一个单位
+            if ((buf[j] & 0xC0) == 0xC0) {
+                reverse(buf, i, j + 1);
+                i = j;
+            }
+        }
+        return to;
+    }
+
+    private static void reverse(byte[] buf, int from, int to) {
+        for (int i = from, j = to - 1; i < j; i++, j--) {
+            byte tmp = buf[i];
+            buf[i] = buf[j];
+            buf[j] = tmp;
+        }
+    }
+
+    private static int writeHex(byte[] buf, int pos, int value) {
+        for (int shift = 12; shift >= 0; shift -= 4) {
+            buf[pos++] = (byte) HEX[(value >>> shift) & 0xF];
+        }
+        return pos;
     }
-}
 
+    // 就地反转 buf[from, to)，代理对保持原顺序（与 StringBuilder.reverse 一致）
+    private static int closeSegment(char[] buf, int from, int to) {
+        for (int i = from, j = to - 1; i < j; i++, j--) {
+            char tmp = buf[i];
+            buf[i] = buf[j];
+            buf[j] = tmp;
+        }
+        for (int i = from; i < to - 1; i++) {
+            if (Character.isLowSurrogate(buf[i]) && Character.isHighSurrogate(buf[i + 1])) {
+                char tmp = buf[i];
+                buf[i] = buf[i + 1];
+                buf[i + 1] = tmp;
+                i++;
+            }
+        }
+        return to;
+    }
+
+    private static int writeHex(char[] buf, int pos, int value) {
+        for (int shift = 12; shift >= 0; shift -= 4) {
+            buf[pos++] = HEX[(value >>> shift) & 0xF];
+        }
+        return pos;
+    }
+}
@@ -2,23 +2,60 @@ package convertor;
 
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.Base64;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.UUID;
 
 public class StringUUIDConverter {
     private final String salt;
-    private final Map<String, String> uuidToStringMap;
+    // Reverse mapping keyed on the UUID's two longs, safe for concurrent use
+    private final UUIDMapping uuidToStringIndex;
+    // Map-free mode for short inputs, null when disabled
+    private final UUIDBlockCipher blockCipher;
 
     public StringUUIDConverter(String salt) {
+        this(salt, false);
+    }
+
+    /**
+     * @param offHeap keep the reverse-mapping values outside the Java heap
+     */
+    public StringUUIDConverter(String salt, boolean offHeap) {
+        this(salt, offHeap, false);
+    }
+
+    /**
+     * @param offHeap           keep the reverse-mapping values outside the Java heap
+     * @param directShortValues encrypt inputs of up to {@value UUIDBlockCipher#MAX_LENGTH} UTF-8 bytes
+     *                          straight into the UUID, so they can be reverted with only the salt,
+     *                          across restarts and without growing the index; longer inputs
+     *                          still use the hash and the index
+     */
+    public StringUUIDConverter(String salt, boolean offHeap, boolean directShortValues) {
+        this(salt, new UUIDIndex(offHeap), directShortValues);
+    }
+
+    /**
+     * @param mapping reverse mapping to use, e.g. a {@link UUIDStore} so mappings survive restarts
+     *                without reconverting the corpus
+     */
+    public StringUUIDConverter(String salt, UUIDMapping mapping, boolean directShortValues) {
         this.salt = salt;
-        this.uuidToStringMap = new HashMap<>();
+        this.uuidToStringIndex = mapping;
+        this.blockCipher = directShortValues ? new UUIDBlockCipher(salt) : null;
     }
 
     public UUID convertToUUID(String originalString) {
+        if (blockCipher != null) {
+            byte[] utf8 = UUIDBlockCipher.fitting(originalString);
+            if (utf8 != null) {
+                ByteBuffer bb = ByteBuffer.wrap(blockCipher.encrypt(utf8));
+                return new UUID(bb.getLong(), bb.getLong());
+            }
+        }
         try {
             // Combine original string with salt
             String combinedString = originalString + salt;
@@ -35,7 +72,7 @@ public class StringUUIDConverter {
             UUID uuid = new UUID(mostSigBits, leastSigBits);
 
             // Store the mapping for reverse lookup
-            uuidToStringMap.put(uuid.toString(), originalString);
+            uuidToStringIndex.put(mostSigBits, leastSigBits, originalString);
 
             return uuid;
         } catch (NoSuchAlgorithmException e) {
@@ -44,7 +81,13 @@ public class StringUUIDConverter {
     }
 
     public String convertFromUUID(UUID uuid) {
-        String originalString = uuidToStringMap.get(uuid.toString());
+        String originalString = uuidToStringIndex.get(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+        if (originalString == null && blockCipher != null) {
+            originalString = blockCipher.decrypt(ByteBuffer.allocate(16)
+                    .putLong(uuid.getMostSignificantBits())
+                    .putLong(uuid.getLeastSignificantBits())
+                    .array());
+        }
         if (originalString == null) {
             throw new IllegalArgumentException("No mapping found for this UUID");
         }
@@ -53,7 +96,7 @@ public class StringUUIDConverter {
 
 
 
-    public static void main(String[] args) {
+    public static void main(String[] args) throws Exception {
         // Example usage
         String salt = "mySaltString123";
         StringUUIDConverter converter = new StringUUIDConverter(salt);
@@ -67,5 +110,23 @@ public class StringUUIDConverter {
         // Convert back to original string
         String retrievedString = converter.convertFromUUID(uuid);
         System.out.println("Retrieved String: " + retrievedString);
+
+        // Short values are encrypted into the UUID itself; a fresh converter with the same salt can revert them
+        StringUUIDConverter direct = new StringUUIDConverter(salt, false, true);
+        UUID shortUuid = direct.convertToUUID("user-42");
+        UUID longUuid = direct.convertToUUID(originalString);
+        System.out.println("Direct UUID: " + shortUuid + ", stable: " + shortUuid.equals(direct.convertToUUID("user-42")));
+        StringUUIDConverter restarted = new StringUUIDConverter(salt, false, true);
+        System.out.println("Reverted after restart: " + restarted.convertFromUUID(shortUuid));
+        System.out.println("Long value from index: " + direct.convertFromUUID(longUuid));
+
+        // Persistent mapping: a later process maps the store instead of reconverting everything
+        Path storeDir = Files.createTempDirectory("uuid-store");
+        try (UUIDStore store = UUIDStore.open(storeDir)) {
+            new StringUUIDConverter(salt, store, false).convertToUUID(originalString);
+        }
+        try (UUIDStore store = UUIDStore.open(storeDir)) {
+            System.out.println("From store after reopen: " + new StringUUIDConverter(salt, store, false).convertFromUUID(uuid));
+        }
     }
 }
\ No newline at end of file
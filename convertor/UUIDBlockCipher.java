@@ -0,0 +1,107 @@
+package convertor;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.PBEKeySpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+
+/**
+ * Deterministic, reversible mapping of short strings into the 128-bit UUID space.
+ * <p>
+ * The value is packed into one 16-byte block and encrypted with AES (a keyed
+ * permutation of the 128-bit space), so the UUID is stable for a given key and
+ * input and decrypting it gives the input back without any stored mapping.
+ * <pre>
+ * block: 0xA0 | length(4 bits) | utf8(length) | zero padding up to byte 16
+ * </pre>
+ * At most {@value #MAX_LENGTH} UTF-8 bytes fit, which leaves at least four zero
+ * bytes plus the marker nibble as redundancy: a UUID that did not come from
+ * {@link #encrypt} decrypts to a valid block with probability below 2^-36.
+ */
+final class UUIDBlockCipher {
+    static final int MAX_LENGTH = 11;
+
+    private static final int BLOCK = 16;
+    private static final int MARKER = 0xA0;
+    private static final int ITERATION_COUNT = 65536;
+    // Separates this key from the PBKDF2 keys used for the AES-GCM tokens
+    private static final byte[] KEY_SALT = "convertor/UUIDBlockCipher".getBytes(StandardCharsets.UTF_8);
+
+    private final ThreadLocal<Cipher[]> ciphers;
+
+    UUIDBlockCipher(String secret) {
+        SecretKey key = deriveKey(secret);
+        this.ciphers = ThreadLocal.withInitial(() -> {
+            try {
+                Cipher encryptor = Cipher.getInstance("AES/ECB/NoPadding");
+                encryptor.init(Cipher.ENCRYPT_MODE, key);
+                Cipher decryptor = Cipher.getInstance("AES/ECB/NoPadding");
+                decryptor.init(Cipher.DECRYPT_MODE, key);
+                return new Cipher[]{encryptor, decryptor};
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("AES/ECB/NoPadding not available", e);
+            }
+        });
+    }
+
+    private static SecretKey deriveKey(String secret) {
+        try {
+            PBEKeySpec spec = new PBEKeySpec(secret.toCharArray(), KEY_SALT, ITERATION_COUNT, 128);
+            byte[] keyBytes = CryptoContext.get().pbkdf2Factory().generateSecret(spec).getEncoded();
+            return new SecretKeySpec(keyBytes, "AES");
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not derive UUID block key", e);
+        }
+    }
+
+    /**
+     * UTF-8 bytes of {@code value} if it fits in one block, otherwise {@code null}
+     */
+    static byte[] fitting(String value) {
+        // Every char is at least one UTF-8 byte
+        if (value.length() > MAX_LENGTH) {
+            return null;
+        }
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        return utf8.length <= MAX_LENGTH ? utf8 : null;
+    }
+
+    /**
+     * Encrypt up to {@value #MAX_LENGTH} bytes into a 16-byte block (msb first)
+     */
+    byte[] encrypt(byte[] utf8) {
+        byte[] block = new byte[BLOCK];
+        block[0] = (byte) (MARKER | utf8.length);
+        System.arraycopy(utf8, 0, block, 1, utf8.length);
+        try {
+            return ciphers.get()[0].doFinal(block);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Original string, or {@code null} if the block was not produced by {@link #encrypt}
+     */
+    String decrypt(byte[] encrypted) {
+        byte[] block;
+        try {
+            block = ciphers.get()[1].doFinal(encrypted);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+        int header = block[0] & 0xFF;
+        int length = header & 0x0F;
+        if ((header & 0xF0) != MARKER || length > MAX_LENGTH) {
+            return null;
+        }
+        for (int i = 1 + length; i < BLOCK; i++) {
+            if (block[i] != 0) {
+                return null;
+            }
+        }
+        return new String(block, 1, length, StandardCharsets.UTF_8);
+    }
+}
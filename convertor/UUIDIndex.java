@@ -0,0 +1,308 @@
+package convertor;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Concurrent UUID -> string index keyed directly on the two {@code long} halves of the UUID.
+ * <p>
+ * The index is split into segments. Each segment is an open-addressing table of
+ * (msb, lsb, value reference) slots plus an append-only byte arena holding the
+ * UTF-8 values, optionally off-heap. Writers take the segment write lock;
+ * readers use an optimistic {@link StampedLock} read and only fall back to the
+ * read lock if a writer got in the way. Lookups allocate nothing besides the
+ * returned value.
+ */
+public final class UUIDIndex implements UUIDMapping {
+    private static final int SEGMENT_BITS = 6;
+    private static final int SEGMENTS = 1 << SEGMENT_BITS;
+    private static final int INITIAL_SLOTS = 64;
+    private static final int INITIAL_ARENA = 4096;
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+
+    public UUIDIndex() {
+        this(false);
+    }
+
+    /**
+     * @param offHeap keep values in direct buffers instead of on the Java heap
+     */
+    public UUIDIndex(boolean offHeap) {
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(offHeap);
+        }
+    }
+
+    @Override
+    public void put(long msb, long lsb, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        put(msb, lsb, bytes, 0, bytes.length);
+    }
+
+    public void put(long msb, long lsb, byte[] value, int off, int len) {
+        long hash = mix(msb, lsb);
+        segmentFor(hash).put(hash, msb, lsb, value, off, len);
+    }
+
+    @Override
+    public String get(long msb, long lsb) {
+        long hash = mix(msb, lsb);
+        return segmentFor(hash).get(hash, msb, lsb);
+    }
+
+    /**
+     * Copy the UTF-8 value for (msb, lsb) into {@code dst} without allocating
+     *
+     * @return number of bytes copied, or -1 if there is no value
+     * @throws IndexOutOfBoundsException if {@code dst} is too small
+     */
+    public int get(long msb, long lsb, byte[] dst, int dstOff) {
+        long hash = mix(msb, lsb);
+        return segmentFor(hash).get(hash, msb, lsb, dst, dstOff);
+    }
+
+    public boolean contains(long msb, long lsb) {
+        long hash = mix(msb, lsb);
+        return segmentFor(hash).valueLength(hash, msb, lsb) >= 0;
+    }
+
+    public long size() {
+        long size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    private Segment segmentFor(long hash) {
+        return segments[(int) (hash >>> (64 - SEGMENT_BITS))];
+    }
+
+    static long mix(long msb, long lsb) {
+        long h = msb * 0x9E3779B97F4A7C15L ^ lsb;
+        h ^= h >>> 32;
+        h *= 0xBF58476D1CE4E5B9L;
+        return h ^ (h >>> 29);
+    }
+
+    /**
+     * One open-addressing table and its value arena. A reference of 0 marks an
+     * empty slot; otherwise it packs (arena offset + 1) in the high and the value
+     * length in the low 32 bits.
+     */
+    private static final class Segment {
+        private final StampedLock lock = new StampedLock();
+        private final boolean offHeap;
+        // Replaced as a whole on resize so optimistic readers see consistent arrays
+        private volatile Table table = new Table(INITIAL_SLOTS);
+        private volatile ByteBuffer arena;
+        private int arenaUsed;
+        private int size;
+
+        Segment(boolean offHeap) {
+            this.offHeap = offHeap;
+            this.arena = allocate(INITIAL_ARENA);
+        }
+
+        private ByteBuffer allocate(int capacity) {
+            return offHeap ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+        }
+
+        void put(long hash, long msb, long lsb, byte[] value, int off, int len) {
+            long stamp = lock.writeLock();
+            try {
+                Table t = table;
+                int slot = t.find(hash, msb, lsb);
+                if (slot >= 0) {
+                    long ref = t.refs[slot];
+                    if (sameValue(ref, value, off, len)) {
+                        return;
+                    }
+                    t.refs[slot] = append(value, off, len);
+                    return;
+                }
+                if ((size + 1) * 4L > t.refs.length * 3L) {
+                    t = resize(t);
+                }
+                t.insert(hash, msb, lsb, append(value, off, len));
+                size++;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        String get(long hash, long msb, long lsb) {
+            long stamp = lock.tryOptimisticRead();
+            Table t = table;
+            ByteBuffer a = arena;
+            long ref = t.lookup(hash, msb, lsb);
+            if (!lock.validate(stamp)) {
+                stamp = lock.readLock();
+                try {
+                    t = table;
+                    a = arena;
+                    ref = t.lookup(hash, msb, lsb);
+                } finally {
+                    lock.unlockRead(stamp);
+                }
+            }
+            if (ref == 0) {
+                return null;
+            }
+            // Arena content below arenaUsed is never modified, so it can be read after unlocking
+            byte[] bytes = new byte[length(ref)];
+            a.get(offset(ref), bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        int get(long hash, long msb, long lsb, byte[] dst, int dstOff) {
+            long stamp = lock.tryOptimisticRead();
+            Table t = table;
+            ByteBuffer a = arena;
+            long ref = t.lookup(hash, msb, lsb);
+            if (!lock.validate(stamp)) {
+                stamp = lock.readLock();
+                try {
+                    t = table;
+                    a = arena;
+                    ref = t.lookup(hash, msb, lsb);
+                } finally {
+                    lock.unlockRead(stamp);
+                }
+            }
+            if (ref == 0) {
+                return -1;
+            }
+            int len = length(ref);
+            a.get(offset(ref), dst, dstOff, len);
+            return len;
+        }
+
+        int valueLength(long hash, long msb, long lsb) {
+            long stamp = lock.readLock();
+            try {
+                long ref = table.lookup(hash, msb, lsb);
+                return ref == 0 ? -1 : length(ref);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        long size() {
+            long stamp = lock.readLock();
+            try {
+                return size;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        private boolean sameValue(long ref, byte[] value, int off, int len) {
+            if (length(ref) != len) {
+                return false;
+            }
+            int base = offset(ref);
+            for (int i = 0; i < len; i++) {
+                if (arena.get(base + i) != value[off + i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private long append(byte[] value, int off, int len) {
+            ByteBuffer a = arena;
+            if (a.capacity() - arenaUsed < len) {
+                long needed = (long) arenaUsed + len;
+                if (needed > Integer.MAX_VALUE - 1) {
+                    throw new IllegalStateException("UUIDIndex segment arena is full");
+                }
+                int capacity = (int) Math.min(Integer.MAX_VALUE - 1L, Math.max(needed, a.capacity() * 2L));
+                ByteBuffer grown = allocate(capacity);
+                grown.put(0, a, 0, arenaUsed);
+                arena = a = grown;
+            }
+            a.put(arenaUsed, value, off, len);
+            long ref = ((arenaUsed + 1L) << 32) | len;
+            arenaUsed += len;
+            return ref;
+        }
+
+        private Table resize(Table old) {
+            Table grown = new Table(old.refs.length * 2);
+            for (int i = 0; i < old.refs.length; i++) {
+                if (old.refs[i] != 0) {
+                    grown.insert(mix(old.msbs[i], old.lsbs[i]), old.msbs[i], old.lsbs[i], old.refs[i]);
+                }
+            }
+            table = grown;
+            return grown;
+        }
+
+        private static int offset(long ref) {
+            return (int) (ref >>> 32) - 1;
+        }
+
+        private static int length(long ref) {
+            return (int) ref;
+        }
+    }
+
+    private static final class Table {
+        final long[] msbs;
+        final long[] lsbs;
+        final long[] refs;
+        final int mask;
+
+        Table(int slots) {
+            msbs = new long[slots];
+            lsbs = new long[slots];
+            refs = new long[slots];
+            mask = slots - 1;
+        }
+
+        /**
+         * Slot holding (msb, lsb), or -1
+         */
+        int find(long hash, long msb, long lsb) {
+            for (int i = (int) hash & mask; ; i = (i + 1) & mask) {
+                if (refs[i] == 0) {
+                    return -1;
+                }
+                if (msbs[i] == msb && lsbs[i] == lsb) {
+                    return i;
+                }
+            }
+        }
+
+        /**
+         * Value reference for (msb, lsb), or 0. Bounded by the table size so a
+         * racing optimistic read can not spin forever.
+         */
+        long lookup(long hash, long msb, long lsb) {
+            int i = (int) hash & mask;
+            for (int probes = 0; probes <= mask; probes++, i = (i + 1) & mask) {
+                long ref = refs[i];
+                if (ref == 0) {
+                    return 0;
+                }
+                if (msbs[i] == msb && lsbs[i] == lsb) {
+                    return ref;
+                }
+            }
+            return 0;
+        }
+
+        void insert(long hash, long msb, long lsb, long ref) {
+            int i = (int) hash & mask;
+            while (refs[i] != 0) {
+                i = (i + 1) & mask;
+            }
+            msbs[i] = msb;
+            lsbs[i] = lsb;
+            refs[i] = ref;
+        }
+    }
+}
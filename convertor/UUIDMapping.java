@@ -0,0 +1,18 @@
+package convertor;
+
+/**
+ * Reverse mapping from a UUID's two {@code long} halves to the original string,
+ * as used by {@link StringUUIDConverter}
+ */
+public interface UUIDMapping {
+
+    /**
+     * Store {@code value} for the UUID (msb, lsb), replacing any previous value
+     */
+    void put(long msb, long lsb, String value);
+
+    /**
+     * @return the value for (msb, lsb), or {@code null} if there is none
+     */
+    String get(long msb, long lsb);
+}
@@ -0,0 +1,650 @@
+package convertor;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.locks.StampedLock;
+import java.util.zip.CRC32;
+
+/**
+ * Persistent UUID -> string mapping: an append-only log of records plus a
+ * memory-mapped open-addressing hash index over the UUID's two {@code long} halves.
+ * <p>
+ * Files in the store directory (big-endian):
+ * <pre>
+ * uuid.log : magic "CVU1" | generation(8)
+ *            record* : msb(8) | lsb(8) | length(4) | crc32(4) | utf8
+ * uuid.idx : magic "CVX1" | generation(8) | slots(4) | clean(1) | count(8) | logLength(8) | liveBytes(8), padded to 64
+ *            slot*   : msb(8) | lsb(8) | ref(8)       ref = (log offset + 1) &lt;&lt; 24 | length, 0 = empty
+ * </pre>
+ * Opening a cleanly closed store only maps the index; slots and values are paged
+ * in by the lookups that touch them. If the index is missing, does not belong to
+ * the log (generation mismatch) or was not closed cleanly, it is rebuilt by one
+ * sequential scan of the log, which also cuts off a torn last record. A damaged
+ * record in the middle of the log fails the open with an {@link IOException}.
+ * <p>
+ * A changed value for an existing UUID is appended and the old record becomes
+ * dead; {@link #compact()} rewrites the log with live records only. Writers are
+ * serialized; readers share a read lock.
+ */
+public final class UUIDStore implements UUIDMapping, Closeable {
+    private static final int LOG_MAGIC = 0x43565531; // "CVU1"
+    private static final int INDEX_MAGIC = 0x43565831; // "CVX1"
+    private static final int LOG_HEADER_LENGTH = 4 + 8;
+    private static final int RECORD_HEADER_LENGTH = 8 + 8 + 4 + 4;
+    private static final int INDEX_HEADER_LENGTH = 64;
+    private static final int SLOT_BYTES = 24;
+    // 4M slots (96 MB) per mapping keeps each window well below 2 GB
+    private static final int SLOTS_PER_WINDOW = 1 << 22;
+    private static final int MIN_SLOTS = 1024;
+    static final int MAX_VALUE_LENGTH = (1 << 24) - 1;
+    private static final int WRITE_BUFFER_SIZE = 1 << 16;
+
+    private final Path logPath;
+    private final Path indexPath;
+    private final StampedLock lock = new StampedLock();
+    // Records are staged here so a put does not cost a write call; reads beyond flushedLength look here
+    private final ByteBuffer pending = ByteBuffer.allocate(WRITE_BUFFER_SIZE);
+    private final CRC32 crc = new CRC32();
+    private FileChannel log;
+    private long generation;
+    private long flushedLength;
+    private long logLength;
+    private long liveBytes;
+    private Index index;
+
+    private UUIDStore(Path directory) {
+        this.logPath = directory.resolve("uuid.log");
+        this.indexPath = directory.resolve("uuid.idx");
+    }
+
+    /**
+     * Open (or create) the store in {@code directory}
+     */
+    public static UUIDStore open(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        UUIDStore store = new UUIDStore(directory);
+        store.log = FileChannel.open(store.logPath,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            store.load();
+        } catch (IOException | RuntimeException e) {
+            store.log.close();
+            if (store.index != null) {
+                store.index.channel.close();
+            }
+            throw e;
+        }
+        return store;
+    }
+
+    private void load() throws IOException {
+        if (log.size() == 0) {
+            generation = RandomSource.secure().nextLong();
+            writeFully(log, ByteBuffer.allocate(LOG_HEADER_LENGTH).putInt(LOG_MAGIC).putLong(generation).flip(), 0);
+            log.force(false);
+        }
+        ByteBuffer header = ByteBuffer.allocate(LOG_HEADER_LENGTH);
+        readFully(log, header, 0);
+        if (header.getInt(0) != LOG_MAGIC) {
+            throw new IOException("Not a UUID store log: " + logPath);
+        }
+        generation = header.getLong(4);
+        flushedLength = logLength = log.size();
+
+        index = Index.openIfClean(indexPath, generation, logLength);
+        if (index == null) {
+            rebuild();
+        } else {
+            liveBytes = index.liveBytes;
+        }
+        // Until close() the index on disk may lag the log
+        index.writeHeader(generation, false, logLength, liveBytes);
+        index.channel.force(false);
+    }
+
+    /**
+     * Replay the whole log into a fresh index, truncating a torn last record.
+     * A damaged record with more log after it is reported instead of cut, so the
+     * records behind it are not lost.
+     */
+    private void rebuild() throws IOException {
+        Files.deleteIfExists(indexPath);
+        index = Index.create(indexPath, MIN_SLOTS);
+        liveBytes = 0;
+        long position = LOG_HEADER_LENGTH;
+        // Not closed: closing the stream would close the log channel
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(log.position(position)), 1 << 16));
+        try {
+            byte[] header = new byte[RECORD_HEADER_LENGTH];
+            byte[] value = new byte[256];
+            while (position + RECORD_HEADER_LENGTH <= logLength) {
+                in.readFully(header);
+                ByteBuffer fields = ByteBuffer.wrap(header);
+                long msb = fields.getLong();
+                long lsb = fields.getLong();
+                int length = fields.getInt();
+                int expected = fields.getInt();
+                if (length < 0 || length > MAX_VALUE_LENGTH) {
+                    throw new IOException("Corrupt record length " + length + " at offset " + position + " in " + logPath);
+                }
+                long end = position + RECORD_HEADER_LENGTH + length;
+                if (end > logLength) {
+                    // Incomplete last record
+                    break;
+                }
+                if (value.length < length) {
+                    value = new byte[Math.max(length, value.length * 2)];
+                }
+                in.readFully(value, 0, length);
+                crc.reset();
+                crc.update(header, 0, RECORD_HEADER_LENGTH - 4);
+                crc.update(value, 0, length);
+                if ((int) crc.getValue() != expected) {
+                    if (end == logLength) {
+                        // Last record only partly reached the disk
+                        break;
+                    }
+                    throw new IOException("Checksum mismatch in record at offset " + position + " in " + logPath);
+                }
+                link(msb, lsb, position, length);
+                position = end;
+            }
+        } catch (EOFException e) {
+            // Torn record, cut off below
+        }
+        if (position < logLength) {
+            log.truncate(position);
+            flushedLength = logLength = position;
+        }
+    }
+
+    @Override
+    public void put(long msb, long lsb, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        try {
+            put(msb, lsb, bytes, 0, bytes.length);
+        } catch (IOException e) {
+            throw new IllegalStateException("UUID store write failed", e);
+        }
+    }
+
+    public void put(long msb, long lsb, byte[] value, int off, int len) throws IOException {
+        if (len > MAX_VALUE_LENGTH) {
+            throw new IllegalArgumentException("Value too large: " + len + " bytes");
+        }
+        long stamp = lock.writeLock();
+        try {
+            long ref = index.lookup(UUIDIndex.mix(msb, lsb), msb, lsb);
+            if (ref != 0 && sameValue(ref, value, off, len)) {
+                return;
+            }
+            long position = append(msb, lsb, value, off, len);
+            link(msb, lsb, position, len);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public String get(long msb, long lsb) {
+        long stamp = lock.readLock();
+        try {
+            long ref = index.lookup(UUIDIndex.mix(msb, lsb), msb, lsb);
+            if (ref == 0) {
+                return null;
+            }
+            return new String(readValue(ref), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalStateException("UUID store read failed", e);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public long size() {
+        long stamp = lock.readLock();
+        try {
+            return index.count;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Log bytes taken by records that were superseded by a later value
+     */
+    public long deadBytes() {
+        long stamp = lock.readLock();
+        try {
+            return logLength - LOG_HEADER_LENGTH - liveBytes;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Write staged records to the log and force log and index to disk
+     */
+    public void flush() throws IOException {
+        long stamp = lock.writeLock();
+        try {
+            flushPending();
+            log.force(false);
+            index.force();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * {@link #compact()} if dead records take more than {@code maxDeadRatio} of the log
+     *
+     * @return bytes reclaimed, 0 if the store was not compacted
+     */
+    public long compactIfNeeded(double maxDeadRatio) throws IOException {
+        long stamp = lock.writeLock();
+        try {
+            long dead = logLength - LOG_HEADER_LENGTH - liveBytes;
+            return dead > maxDeadRatio * logLength ? compactLocked() : 0;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Rewrite the log with only the live records and rebuild the index for it.
+     * <p>
+     * The new files get a new generation and replace the old ones by rename, log
+     * first; a crash in between leaves a log whose index does not match, which is
+     * rebuilt on the next open.
+     *
+     * @return bytes reclaimed
+     */
+    public long compact() throws IOException {
+        long stamp = lock.writeLock();
+        try {
+            return compactLocked();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private long compactLocked() throws IOException {
+        flushPending();
+        Path logTmp = logPath.resolveSibling(logPath.getFileName() + ".compact");
+        Path indexTmp = indexPath.resolveSibling(indexPath.getFileName() + ".compact");
+        long newGeneration = RandomSource.secure().nextLong();
+        int slots = Index.slotsFor(index.count);
+
+        FileChannel newLog = FileChannel.open(logTmp, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        Index newIndex;
+        long newLength;
+        try {
+            Files.deleteIfExists(indexTmp);
+            newIndex = Index.create(indexTmp, slots);
+            ByteBuffer out = ByteBuffer.allocate(WRITE_BUFFER_SIZE);
+            out.putInt(LOG_MAGIC).putLong(newGeneration);
+            long written = 0;
+            for (int slot = 0; slot < index.slots; slot++) {
+                long ref = index.ref(slot);
+                if (ref == 0) {
+                    continue;
+                }
+                ByteBuffer record = readRecord(offset(ref), length(ref));
+                if (out.remaining() < record.remaining()) {
+                    written += drain(newLog, out, written);
+                }
+                long position = written + out.position();
+                if (record.remaining() > out.capacity()) {
+                    writeFully(newLog, record, written);
+                    written += record.limit();
+                } else {
+                    out.put(record);
+                }
+                long msb = index.msb(slot);
+                long lsb = index.lsb(slot);
+                newIndex.insert(UUIDIndex.mix(msb, lsb), msb, lsb, reference(position, length(ref)));
+            }
+            written += drain(newLog, out, written);
+            newLength = written;
+            newLog.force(false);
+            newIndex.count = index.count;
+            newIndex.writeHeader(newGeneration, false, newLength, newLength - LOG_HEADER_LENGTH);
+            newIndex.force();
+        } catch (IOException | RuntimeException e) {
+            newLog.close();
+            throw e;
+        }
+
+        Files.move(logTmp, logPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        Files.move(indexTmp, indexPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        long reclaimed = logLength - newLength;
+        log.close();
+        index.channel.close();
+        log = newLog;
+        index = newIndex;
+        generation = newGeneration;
+        flushedLength = logLength = newLength;
+        liveBytes = newLength - LOG_HEADER_LENGTH;
+        return reclaimed;
+    }
+
+    @Override
+    public void close() throws IOException {
+        long stamp = lock.writeLock();
+        try {
+            flushPending();
+            log.force(false);
+            index.force();
+            index.writeHeader(generation, true, logLength, liveBytes);
+            index.channel.force(false);
+        } finally {
+            log.close();
+            index.channel.close();
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Point (msb, lsb) at the record at {@code position}, growing the index when it gets too full
+     */
+    private void link(long msb, long lsb, long position, int length) throws IOException {
+        long hash = UUIDIndex.mix(msb, lsb);
+        int slot = index.find(hash, msb, lsb);
+        long recordLength = RECORD_HEADER_LENGTH + length;
+        if (slot >= 0) {
+            liveBytes += recordLength - (RECORD_HEADER_LENGTH + length(index.ref(slot)));
+            index.setRef(slot, reference(position, length));
+            return;
+        }
+        if ((index.count + 1) * 4 > index.slots * 3L) {
+            grow();
+        }
+        index.insert(hash, msb, lsb, reference(position, length));
+        index.count++;
+        liveBytes += recordLength;
+    }
+
+    private void grow() throws IOException {
+        Path tmp = indexPath.resolveSibling(indexPath.getFileName() + ".grow");
+        Files.deleteIfExists(tmp);
+        Index grown = Index.create(tmp, index.slots * 2);
+        for (int slot = 0; slot < index.slots; slot++) {
+            long ref = index.ref(slot);
+            if (ref != 0) {
+                long msb = index.msb(slot);
+                long lsb = index.lsb(slot);
+                grown.insert(UUIDIndex.mix(msb, lsb), msb, lsb, ref);
+            }
+        }
+        grown.count = index.count;
+        grown.writeHeader(generation, false, logLength, liveBytes);
+        Files.move(tmp, indexPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        index.channel.close();
+        index = grown;
+    }
+
+    private long append(long msb, long lsb, byte[] value, int off, int len) throws IOException {
+        int recordLength = RECORD_HEADER_LENGTH + len;
+        if (pending.remaining() < recordLength) {
+            flushPending();
+        }
+        crc.reset();
+        ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_LENGTH).putLong(msb).putLong(lsb).putInt(len);
+        crc.update(header.array(), 0, RECORD_HEADER_LENGTH - 4);
+        crc.update(value, off, len);
+        header.putInt((int) crc.getValue()).flip();
+
+        long position = logLength;
+        if (recordLength > pending.capacity()) {
+            writeFully(log, header, position);
+            writeFully(log, ByteBuffer.wrap(value, off, len), position + RECORD_HEADER_LENGTH);
+            flushedLength += recordLength;
+        } else {
+            pending.put(header).put(value, off, len);
+        }
+        logLength += recordLength;
+        return position;
+    }
+
+    private void flushPending() throws IOException {
+        if (pending.position() == 0) {
+            return;
+        }
+        pending.flip();
+        writeFully(log, pending, flushedLength);
+        flushedLength += pending.limit();
+        pending.clear();
+    }
+
+    private byte[] readValue(long ref) throws IOException {
+        long position = offset(ref) + RECORD_HEADER_LENGTH;
+        byte[] value = new byte[length(ref)];
+        if (position >= flushedLength) {
+            pending.get((int) (position - flushedLength), value);
+        } else {
+            readFully(log, ByteBuffer.wrap(value), position);
+        }
+        return value;
+    }
+
+    private ByteBuffer readRecord(long position, int length) throws IOException {
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_LENGTH + length);
+        readFully(log, record, position);
+        return record.flip();
+    }
+
+    private boolean sameValue(long ref, byte[] value, int off, int len) throws IOException {
+        if (length(ref) != len) {
+            return false;
+        }
+        byte[] stored = readValue(ref);
+        return Arrays.equals(stored, 0, len, value, off, off + len);
+    }
+
+    private static long drain(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        buffer.flip();
+        int written = buffer.remaining();
+        writeFully(channel, buffer, position);
+        buffer.clear();
+        return written;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new EOFException("UUID store log is truncated");
+            }
+            position += read;
+        }
+    }
+
+    private static long reference(long position, int length) {
+        return ((position + 1) << 24) | length;
+    }
+
+    private static long offset(long ref) {
+        return (ref >>> 24) - 1;
+    }
+
+    private static int length(long ref) {
+        return (int) (ref & MAX_VALUE_LENGTH);
+    }
+
+    /**
+     * Memory-mapped open-addressing table of (msb, lsb, ref) slots
+     */
+    private static final class Index {
+        final FileChannel channel;
+        final MappedByteBuffer[] windows;
+        final int slots;
+        final int mask;
+        long count;
+        long liveBytes;
+
+        private Index(FileChannel channel, int slots) throws IOException {
+            this.channel = channel;
+            this.slots = slots;
+            this.mask = slots - 1;
+            int windowCount = (slots + SLOTS_PER_WINDOW - 1) / SLOTS_PER_WINDOW;
+            this.windows = new MappedByteBuffer[windowCount];
+            for (int i = 0; i < windowCount; i++) {
+                long start = INDEX_HEADER_LENGTH + (long) i * SLOTS_PER_WINDOW * SLOT_BYTES;
+                long length = (long) Math.min(SLOTS_PER_WINDOW, slots - i * SLOTS_PER_WINDOW) * SLOT_BYTES;
+                windows[i] = channel.map(FileChannel.MapMode.READ_WRITE, start, length);
+            }
+        }
+
+        static int slotsFor(long count) {
+            int slots = MIN_SLOTS;
+            while (count * 4 > slots * 3L) {
+                slots *= 2;
+            }
+            return slots;
+        }
+
+        static Index create(Path path, int slots) throws IOException {
+            FileChannel channel = FileChannel.open(path,
+                    StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            try {
+                // Sparse file: untouched slots read as zero (empty)
+                writeFully(channel, ByteBuffer.allocate(1), INDEX_HEADER_LENGTH + (long) slots * SLOT_BYTES - 1);
+                return new Index(channel, slots);
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+        }
+
+        /**
+         * Index at {@code path} if it was closed cleanly for exactly this log, otherwise {@code null}
+         */
+        static Index openIfClean(Path path, long generation, long logLength) throws IOException {
+            if (!Files.exists(path)) {
+                return null;
+            }
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            try {
+                ByteBuffer header = ByteBuffer.allocate(INDEX_HEADER_LENGTH);
+                if (channel.size() < INDEX_HEADER_LENGTH) {
+                    channel.close();
+                    return null;
+                }
+                readFully(channel, header, 0);
+                int slots = header.getInt(12);
+                boolean valid = header.getInt(0) == INDEX_MAGIC
+                        && header.getLong(4) == generation
+                        && header.get(16) == 1
+                        && header.getLong(25) == logLength
+                        && slots >= MIN_SLOTS && Integer.bitCount(slots) == 1
+                        && channel.size() == INDEX_HEADER_LENGTH + (long) slots * SLOT_BYTES;
+                if (!valid) {
+                    channel.close();
+                    return null;
+                }
+                Index index = new Index(channel, slots);
+                index.count = header.getLong(17);
+                index.liveBytes = header.getLong(33);
+                return index;
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+        }
+
+        void writeHeader(long generation, boolean clean, long logLength, long liveBytes) throws IOException {
+            ByteBuffer header = ByteBuffer.allocate(INDEX_HEADER_LENGTH)
+                    .putInt(INDEX_MAGIC)
+                    .putLong(generation)
+                    .putInt(slots)
+                    .put((byte) (clean ? 1 : 0))
+                    .putLong(count)
+                    .putLong(logLength)
+                    .putLong(liveBytes);
+            header.clear();
+            writeFully(channel, header, 0);
+        }
+
+        void force() {
+            for (MappedByteBuffer window : windows) {
+                window.force();
+            }
+        }
+
+        long msb(int slot) {
+            return windows[slot / SLOTS_PER_WINDOW].getLong(position(slot));
+        }
+
+        long lsb(int slot) {
+            return windows[slot / SLOTS_PER_WINDOW].getLong(position(slot) + 8);
+        }
+
+        long ref(int slot) {
+            return windows[slot / SLOTS_PER_WINDOW].getLong(position(slot) + 16);
+        }
+
+        void setRef(int slot, long ref) {
+            windows[slot / SLOTS_PER_WINDOW].putLong(position(slot) + 16, ref);
+        }
+
+        /**
+         * Slot holding (msb, lsb), or -1
+         */
+        int find(long hash, long msb, long lsb) {
+            for (int i = (int) hash & mask; ; i = (i + 1) & mask) {
+                long ref = ref(i);
+                if (ref == 0) {
+                    return -1;
+                }
+                if (msb(i) == msb && lsb(i) == lsb) {
+                    return i;
+                }
+            }
+        }
+
+        /**
+         * Reference for (msb, lsb), or 0
+         */
+        long lookup(long hash, long msb, long lsb) {
+            int slot = find(hash, msb, lsb);
+            return slot < 0 ? 0 : ref(slot);
+        }
+
+        void insert(long hash, long msb, long lsb, long ref) {
+            int i = (int) hash & mask;
+            while (ref(i) != 0) {
+                i = (i + 1) & mask;
+            }
+            MappedByteBuffer window = windows[i / SLOTS_PER_WINDOW];
+            int position = position(i);
+            window.putLong(position, msb);
+            window.putLong(position + 8, lsb);
+            window.putLong(position + 16, ref);
+        }
+
+        private static int position(int slot) {
+            return (slot % SLOTS_PER_WINDOW) * SLOT_BYTES;
+        }
+    }
+}
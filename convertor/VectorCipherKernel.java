@@ -0,0 +1,149 @@
+package convertor;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShuffle;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * {@link StringCipher} kernel on the incubating Vector API ({@code jdk.incubator.vector}).
+ * <p>
+ * The 256-entry substitution table is split into {@code 256 / VLENGTH} table
+ * vectors. A lookup rearranges every table vector by the low index bits and
+ * blends in the lanes whose high bits select that vector. Hex digits are
+ * computed arithmetically ({@code '0' + n}, plus 7 above 9). Output pairs are
+ * interleaved, and input pairs de-interleaved, with two-vector rearranges.
+ * Tails shorter than a vector, and chunks holding a non-hex character, go
+ * through the scalar code, so errors read the same as on the scalar path.
+ * <p>
+ * Only loaded by {@link StringCipher} when the module is present
+ * ({@code --add-modules jdk.incubator.vector}).
+ */
+final class VectorCipherKernel implements StringCipher.Kernel {
+    private static final VectorSpecies<Byte> SPECIES = ByteVector.SPECIES_PREFERRED;
+    private static final int LANES = SPECIES.length();
+    private static final int TABLE_VECTORS = 256 / LANES;
+    private static final int INDEX_BITS = Integer.numberOfTrailingZeros(LANES);
+
+    // Lane j of the two output vectors: hex of the high nibble for even j, of the low nibble for odd j
+    private static final VectorShuffle<Byte> ZIP_LOW = zip(0);
+    private static final VectorShuffle<Byte> ZIP_HIGH = zip(LANES / 2);
+    // Even / odd lanes of two concatenated input vectors
+    private static final VectorShuffle<Byte> EVEN = unzip(0);
+    private static final VectorShuffle<Byte> ODD = unzip(1);
+
+    private final StringCipher.Kernel scalar;
+    private final ByteVector[] shuffleTable;
+    private final ByteVector[] reverseTable;
+
+    VectorCipherKernel(byte[] shuffleMap, byte[] reverseMap, StringCipher.Kernel scalar) {
+        this.scalar = scalar;
+        this.shuffleTable = table(shuffleMap);
+        this.reverseTable = table(reverseMap);
+    }
+
+    /**
+     * Whether vectors are wide enough for the table split to pay off
+     */
+    static boolean supported() {
+        return LANES >= 16;
+    }
+
+    static String describe() {
+        return SPECIES.toString();
+    }
+
+    @Override
+    public void encrypt(byte[] src, int off, int len, byte[] dst, int dstOff) {
+        int i = 0;
+        for (int bound = SPECIES.loopBound(len); i < bound; i += LANES) {
+            ByteVector value = lookup(shuffleTable, ByteVector.fromArray(SPECIES, src, off + i));
+            ByteVector high = hexDigits(value.lanewise(VectorOperators.LSHR, 4));
+            ByteVector low = hexDigits(value.and((byte) 0x0F));
+            int out = dstOff + 2 * i;
+            high.rearrange(ZIP_LOW, low).intoArray(dst, out);
+            high.rearrange(ZIP_HIGH, low).intoArray(dst, out + LANES);
+        }
+        if (i < len) {
+            scalar.encrypt(src, off + i, len - i, dst, dstOff + 2 * i);
+        }
+    }
+
+    @Override
+    public void decrypt(byte[] src, int off, int len, byte[] dst, int dstOff) {
+        int i = 0;
+        for (int bound = len - 2 * LANES; i <= bound; i += 2 * LANES) {
+            ByteVector first = ByteVector.fromArray(SPECIES, src, off + i);
+            ByteVector second = ByteVector.fromArray(SPECIES, src, off + i + LANES);
+            ByteVector highChars = first.rearrange(EVEN, second);
+            ByteVector lowChars = first.rearrange(ODD, second);
+            ByteVector high = hexValues(highChars);
+            ByteVector low = hexValues(lowChars);
+            if (high == null || low == null) {
+                // Let the scalar code report the bad character
+                scalar.decrypt(src, off + i, 2 * LANES, dst, dstOff + i / 2);
+                continue;
+            }
+            ByteVector value = high.lanewise(VectorOperators.LSHL, 4).or(low);
+            lookup(reverseTable, value).intoArray(dst, dstOff + i / 2);
+        }
+        if (i < len) {
+            scalar.decrypt(src, off + i, len - i, dst, dstOff + i / 2);
+        }
+    }
+
+    private static ByteVector lookup(ByteVector[] table, ByteVector index) {
+        VectorShuffle<Byte> lowBits = index.and((byte) (LANES - 1)).toShuffle();
+        ByteVector high = index.lanewise(VectorOperators.LSHR, INDEX_BITS);
+        ByteVector result = table[0].rearrange(lowBits);
+        for (int k = 1; k < TABLE_VECTORS; k++) {
+            result = result.blend(table[k].rearrange(lowBits), high.eq((byte) k));
+        }
+        return result;
+    }
+
+    // 0..15 -> '0'..'9', 'A'..'F'
+    private static ByteVector hexDigits(ByteVector nibbles) {
+        ByteVector digits = nibbles.add((byte) '0');
+        return digits.add((byte) 7, nibbles.compare(VectorOperators.GT, (byte) 9));
+    }
+
+    // Hex characters -> 0..15, or null if any lane is not a hex character
+    private static ByteVector hexValues(ByteVector chars) {
+        VectorMask<Byte> digit = chars.compare(VectorOperators.GE, (byte) '0')
+                .and(chars.compare(VectorOperators.LE, (byte) '9'));
+        ByteVector lower = chars.or((byte) 0x20);
+        VectorMask<Byte> letter = lower.compare(VectorOperators.GE, (byte) 'a')
+                .and(lower.compare(VectorOperators.LE, (byte) 'f'));
+        if (!digit.or(letter).allTrue()) {
+            return null;
+        }
+        return lower.sub((byte) ('a' - 10)).blend(chars.sub((byte) '0'), digit);
+    }
+
+    private static ByteVector[] table(byte[] map) {
+        ByteVector[] table = new ByteVector[TABLE_VECTORS];
+        for (int k = 0; k < TABLE_VECTORS; k++) {
+            table[k] = ByteVector.fromArray(SPECIES, map, k * LANES);
+        }
+        return table;
+    }
+
+    private static VectorShuffle<Byte> zip(int base) {
+        int[] indexes = new int[LANES];
+        for (int j = 0; j < LANES; j++) {
+            // Indexes past LANES pick from the second vector
+            indexes[j] = base + j / 2 + ((j & 1) == 0 ? 0 : LANES);
+        }
+        return VectorShuffle.fromArray(SPECIES, indexes, 0);
+    }
+
+    private static VectorShuffle<Byte> unzip(int first) {
+        int[] indexes = new int[LANES];
+        for (int j = 0; j < LANES; j++) {
+            indexes[j] = first + 2 * j;
+        }
+        return VectorShuffle.fromArray(SPECIES, indexes, 0);
+    }
+}